@@ -0,0 +1,29 @@
+package linkedlist;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts list elements to and from bytes so that they can be held outside the heap, for example in memory mapped files.
+ * <br/>
+ * Decoding an encoded element must produce an element equal to the original, with the same hash code, and consume exactly the
+ * bytes that were encoded.
+ *
+ * @param <E> the generic type of the elements.
+ */
+public interface ElementCodec<E> {
+
+  /**
+   * @return the number of bytes {@link #encode(Object, ByteBuffer)} writes for the element.
+   */
+  int size(E element);
+
+  /**
+   * Writes the element at the buffer's position, advancing the position by {@link #size(Object)} bytes.
+   */
+  void encode(E element, ByteBuffer buffer);
+
+  /**
+   * Reads an element from the buffer's position, advancing the position past it.
+   */
+  E decode(ByteBuffer buffer);
+}
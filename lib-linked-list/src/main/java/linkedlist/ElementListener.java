@@ -0,0 +1,16 @@
+package linkedlist;
+
+/**
+ * Notified by a list after every element is linked in to, unlinked from or replaced in the list, used to keep state derived from
+ * the elements, such as aggregates and {@link SecondaryIndex}es, up to date.
+ *
+ * @param <E> the generic type of the list elements.
+ */
+public interface ElementListener<E> {
+
+  void added(E element);
+
+  void removed(E element);
+
+  void replaced(E was, E now);
+}
@@ -0,0 +1,269 @@
+package linkedlist;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * An immutable list packed in to a single array, for example a published schedule that is read many times between edits.
+ * <br/>
+ * Positional access, iteration and {@link #indexOf(Object)} involve no pointer chasing, the position of an element is found with
+ * a perfect hash built by hash and displace: elements are grouped in to buckets by hash, then starting with the largest bucket a
+ * displacement is searched for that sends every element of the bucket to a free slot. The table has a slot for every 0.9 elements
+ * so the last buckets still find free slots quickly, and buckets of one element are placed directly in the remaining free slots.
+ * A lookup is then one bucket read, one slot read and one comparison. Elements whose hash codes collide can not be separated, in
+ * that case the positions are held in a linear probing table instead.
+ * <br/>
+ * The list is safe to share between threads without synchronization once constructed, see
+ * {@code RandomAccessDoubleLinkedList.freeze()} and {@link #thaw()}.
+ *
+ * @param <E> the generic type of the elements.
+ */
+public final class FrozenList<E> extends AbstractList<E> implements RandomAccess {
+
+  // the average number of elements per bucket of the perfect hash
+  private static final int BUCKET_SIZE = 4;
+  // elements per slot of the perfect hash
+  private static final double LOAD_FACTOR = 0.9;
+  // the number of displacements tried for a bucket before falling back to a probing table
+  private static final int MAX_DISPLACEMENT = 1 << 16;
+
+  private final Object[] elements;
+  private final ListOption[] options;
+  private final boolean identityKeys;
+  // the displacement of each bucket, or minus one minus the slot of a bucket of one element, null when the probing table is used
+  private final int[] displacements;
+  // the position of the element in each slot of the perfect hash or -1 if the slot is free, or one plus the position in each slot
+  // of the probing table
+  private final int[] slots;
+
+  /**
+   * @param elements the elements in list order.
+   * @param options the {@link ListOption}s of the list, {@link ListOption#IDENTITY_KEYS} finds elements by identity.
+   */
+  public FrozenList(Collection<? extends E> elements, ListOption... options) {
+    this.elements = elements.toArray();
+    this.options = options.clone();
+    this.identityKeys = Arrays.asList(options).contains(ListOption.IDENTITY_KEYS);
+    int[] hashes = new int[this.elements.length];
+    for (int i = 0; i < hashes.length; i++) {
+      hashes[i] = hash(Objects.requireNonNull(this.elements[i]));
+    }
+    int[] perfect = new int[(int) (hashes.length / LOAD_FACTOR) + 1];
+    Arrays.fill(perfect, -1);
+    int[] found = displace(hashes, perfect);
+    if (found != null) {
+      this.displacements = found;
+      this.slots = perfect;
+    } else {
+      this.displacements = null;
+      this.slots = probingTable(hashes);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    Objects.checkIndex(index, elements.length);
+    return (E) elements[index];
+  }
+
+  @Override
+  public int size() {
+    return elements.length;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return indexOf(o) >= 0;
+  }
+
+  /**
+   * @return the position of the element in constant time, or -1 if it is not in the list.
+   */
+  @Override
+  public int indexOf(Object o) {
+    if (o == null || elements.length == 0) {
+      return -1;
+    }
+    int h = hash(o);
+    if (displacements != null) {
+      int displacement = displacements[bucket(h, displacements.length)];
+      int position = slots[displacement < 0 ? -1 - displacement : slot(h, displacement, slots.length)];
+      return position >= 0 && matches(elements[position], o) ? position : -1;
+    }
+    int mask = slots.length - 1;
+    for (int i = mix(h) & mask; slots[i] != 0; i = (i + 1) & mask) {
+      if (matches(elements[slots[i] - 1], o)) {
+        return slots[i] - 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return true if positions are found with the perfect hash rather than the probing table.
+   */
+  boolean perfect() {
+    return displacements != null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEach(Consumer<? super E> action) {
+    Objects.requireNonNull(action);
+    for (Object element : elements) {
+      action.accept((E) element);
+    }
+  }
+
+  @Override
+  public Object[] toArray() {
+    return elements.clone();
+  }
+
+  /**
+   * @return a new mutable list holding the elements in the same order, with the options this list was frozen with.
+   */
+  @SuppressWarnings("unchecked")
+  public RandomAccessDoubleLinkedList<E> thaw() {
+    RandomAccessDoubleLinkedList<E> list = new RandomAccessDoubleLinkedList<>(options);
+    for (Object element : elements) {
+      list.add((E) element);
+    }
+    return list;
+  }
+
+  private int hash(Object o) {
+    return identityKeys ? System.identityHashCode(o) : o.hashCode();
+  }
+
+  private boolean matches(Object element, Object o) {
+    return identityKeys ? element == o : element.equals(o);
+  }
+
+  /**
+   * Searches a displacement for every bucket, filling in the position of the element held in each slot.
+   *
+   * @return the displacements, or null if the elements of a bucket could not be separated.
+   */
+  private static int[] displace(int[] hashes, int[] slots) {
+    int n = hashes.length;
+    int bucketCount = Math.max(1, n / BUCKET_SIZE);
+    // group the element positions by bucket
+    int[] bucketStarts = new int[bucketCount + 1];
+    for (int h : hashes) {
+      bucketStarts[bucket(h, bucketCount) + 1] ++;
+    }
+    for (int b = 0; b < bucketCount; b++) {
+      bucketStarts[b + 1] += bucketStarts[b];
+    }
+    int[] members = new int[n];
+    int[] fill = Arrays.copyOf(bucketStarts, bucketCount);
+    for (int i = 0; i < n; i++) {
+      members[fill[bucket(hashes[i], bucketCount)]++] = i;
+    }
+    Integer[] order = new Integer[bucketCount];
+    Arrays.setAll(order, b -> b);
+    Arrays.sort(order, (a, b) -> (bucketStarts[b + 1] - bucketStarts[b]) - (bucketStarts[a + 1] - bucketStarts[a]));
+
+    int[] displacements = new int[bucketCount];
+    boolean[] taken = new boolean[slots.length];
+    int[] tried = new int[BUCKET_SIZE * 4];
+    int free = 0;
+    for (int b : order) {
+      int from = bucketStarts[b];
+      int size = bucketStarts[b + 1] - from;
+      if (size == 0) {
+        break;
+      }
+      if (size == 1) {
+        // the buckets of one element come last, each takes the next free slot
+        while (taken[free]) {
+          free ++;
+        }
+        taken[free] = true;
+        slots[free] = members[from];
+        displacements[b] = -1 - free;
+        continue;
+      }
+      if (tried.length < size) {
+        tried = new int[size];
+      }
+      if (sharesHash(hashes, members, from, size)) {
+        return null;
+      }
+      int displacement = 0;
+      while (!fits(hashes, members, from, size, displacement, taken, tried)) {
+        if (++displacement == MAX_DISPLACEMENT) {
+          return null;
+        }
+      }
+      displacements[b] = displacement;
+      for (int i = 0; i < size; i++) {
+        taken[tried[i]] = true;
+        slots[tried[i]] = members[from + i];
+      }
+    }
+    return displacements;
+  }
+
+  private static boolean fits(int[] hashes, int[] members, int from, int size, int displacement, boolean[] taken, int[] tried) {
+    for (int i = 0; i < size; i++) {
+      int slot = slot(hashes[members[from + i]], displacement, taken.length);
+      if (taken[slot]) {
+        return false;
+      }
+      for (int j = 0; j < i; j++) {
+        if (tried[j] == slot) {
+          return false;
+        }
+      }
+      tried[i] = slot;
+    }
+    return true;
+  }
+
+  private static boolean sharesHash(int[] hashes, int[] members, int from, int size) {
+    int[] bucket = new int[size];
+    for (int i = 0; i < size; i++) {
+      bucket[i] = hashes[members[from + i]];
+    }
+    Arrays.sort(bucket);
+    for (int i = 1; i < size; i++) {
+      if (bucket[i] == bucket[i - 1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int[] probingTable(int[] hashes) {
+    int[] table = new int[Integer.highestOneBit(Math.max(2, hashes.length) * 4 - 1)];
+    int mask = table.length - 1;
+    for (int position = 0; position < hashes.length; position++) {
+      int i = mix(hashes[position]) & mask;
+      while (table[i] != 0) {
+        i = (i + 1) & mask;
+      }
+      table[i] = position + 1;
+    }
+    return table;
+  }
+
+  private static int bucket(int h, int bucketCount) {
+    return (mix(h) & Integer.MAX_VALUE) % bucketCount;
+  }
+
+  private static int slot(int h, int displacement, int n) {
+    return (mix(h ^ mix(displacement + 1)) & Integer.MAX_VALUE) % n;
+  }
+
+  private static int mix(int h) {
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,26 @@
+package linkedlist;
+
+/**
+ * Options that change how the linked lists in this library store and find their elements.
+ */
+public enum ListOption {
+
+  /**
+   * Nodes do not hold a reference to the list they belong to, ownership is derived from the element instead. Only applies to lists
+   * that share a random access map between several linked lists.
+   */
+  COMPACT_NODES,
+
+  /**
+   * Elements are found by identity rather than equality, the random access map is an {@link java.util.IdentityHashMap} so lookups
+   * use {@link System#identityHashCode(Object)} and {@code ==} and never call the element's {@code hashCode} or {@code equals}.
+   */
+  IDENTITY_KEYS,
+
+  /**
+   * The random access map is not maintained while a list is only appended to and iterated, it is built in one pre-sized pass by the
+   * first keyed operation such as {@code get}, {@code contains}, {@code remove} or {@code insertAfter} and maintained from then on.
+   * Suits lists that are bulk imported before they are searched.
+   */
+  LAZY_INDEX
+}
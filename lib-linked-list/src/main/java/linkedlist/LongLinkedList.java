@@ -0,0 +1,211 @@
+package linkedlist;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * A doubly linked list of distinct {@code long} values with random access to each value, the primitive counterpart of
+ * {@link RandomAccessDoubleLinkedList}.
+ * <br/>
+ * Values and their links are held in parallel primitive arrays and located through an open addressing hash table of array slots, so
+ * no object is allocated per value and, once the arrays have grown to fit, add, insertAfter, replace and remove produce no garbage.
+ * Slots freed by remove are reused by later additions.
+ */
+public class LongLinkedList extends PrimitiveLinkedList {
+
+  private long[] values;
+
+  public LongLinkedList() {
+    this(16);
+  }
+
+  /**
+   * @param capacity the number of values the list can hold before growing.
+   */
+  public LongLinkedList(int capacity) {
+    super(capacity);
+    values = new long[prev.length];
+  }
+
+  /**
+   * Appends a value to the end of the list.
+   *
+   * @return false if the value is already in the list, in which case the list is unchanged.
+   */
+  public boolean add(long value) {
+    if (position(value) != NIL) {
+      return false;
+    }
+    link(value, tail);
+    return true;
+  }
+
+  /**
+   * Inserts a value directly after another value.
+   *
+   * @throws IllegalArgumentException if after is not in the list or value already is.
+   */
+  public void insertAfter(long after, long value) {
+    int afterSlot = slotAt(position(after));
+    if (afterSlot == NIL) {
+      throw new IllegalArgumentException("Could not find list node for [" + after + "]");
+    }
+    if (position(value) != NIL) {
+      throw new IllegalArgumentException("List already contains [" + value + "]");
+    }
+    link(value, afterSlot);
+  }
+
+  /**
+   * Replaces a value keeping its position in the list.
+   *
+   * @throws IllegalArgumentException if was is not in the list or value already is.
+   */
+  public void replace(long was, long value) {
+    ensureTable();
+    int position = position(was);
+    if (position == NIL) {
+      throw new IllegalArgumentException("Could not find list node for [" + was + "]");
+    }
+    if (was == value) {
+      return;
+    }
+    if (position(value) != NIL) {
+      throw new IllegalArgumentException("List already contains [" + value + "]");
+    }
+    int slot = unhash(position);
+    values[slot] = value;
+    hash(slot);
+    modCount ++;
+  }
+
+  public boolean remove(long value) {
+    int position = position(value);
+    if (position == NIL) {
+      return false;
+    }
+    unlink(position);
+    return true;
+  }
+
+  public boolean contains(long value) {
+    return position(value) != NIL;
+  }
+
+  /**
+   * @throws NoSuchElementException if the list is empty.
+   */
+  public long first() {
+    return values[headSlot()];
+  }
+
+  /**
+   * @throws NoSuchElementException if the list is empty.
+   */
+  public long last() {
+    return values[tailSlot()];
+  }
+
+  /**
+   * Calls the action for every value in list order without allocating an iterator.
+   */
+  public void forEach(LongConsumer action) {
+    int expectedModCount = modCount;
+    for (int slot = head; slot != NIL; slot = next[slot]) {
+      action.accept(values[slot]);
+    }
+    checkForComodification(expectedModCount);
+  }
+
+  public long[] toArray() {
+    long[] result = new long[size()];
+    int i = 0;
+    for (int slot = head; slot != NIL; slot = next[slot]) {
+      result[i++] = values[slot];
+    }
+    return result;
+  }
+
+  public PrimitiveIterator.OfLong iterator() {
+    return slotIterator(head);
+  }
+
+  /**
+   * @return an iterator starting at, and including, the given value.
+   * @throws IllegalArgumentException if from is not in the list.
+   */
+  public PrimitiveIterator.OfLong iterator(long from) {
+    int slot = slotAt(position(from));
+    if (slot == NIL) {
+      throw new IllegalArgumentException("Could not find list node for [" + from + "]");
+    }
+    return slotIterator(slot);
+  }
+
+  private PrimitiveIterator.OfLong slotIterator(int from) {
+    return new PrimitiveIterator.OfLong() {
+      int expectedModCount = modCount;
+      int current = from;
+
+      @Override
+      public boolean hasNext() {
+        checkForComodification(expectedModCount);
+        return current != NIL;
+      }
+
+      @Override
+      public long nextLong() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        long result = values[current];
+        current = next[current];
+        return result;
+      }
+    };
+  }
+
+  private void link(long value, int after) {
+    int slot = allocate();
+    values[slot] = value;
+    linkSlot(slot, after);
+  }
+
+  /**
+   * @return the table position of the value or NIL if it is not in the list.
+   */
+  private int position(long value) {
+    int mask = table.length - 1;
+    for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+      int entry = table[i];
+      if (entry == EMPTY) {
+        return NIL;
+      }
+      if (entry != DELETED && values[entry - 1] == value) {
+        return i;
+      }
+    }
+  }
+
+  @Override
+  int hashOf(int slot) {
+    return mix(values[slot]);
+  }
+
+  @Override
+  void grow(int capacity) {
+    values = Arrays.copyOf(values, capacity);
+  }
+
+  @Override
+  String valueString(int slot) {
+    return Long.toString(values[slot]);
+  }
+
+  private static int mix(long value) {
+    long h = value * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -0,0 +1,235 @@
+package linkedlist;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * The links, free slot chain and open addressing hash table shared by {@link IntLinkedList} and {@link LongLinkedList}, which hold
+ * their values in a primitive array of their own type indexed by the same slots.
+ * <br/>
+ * A subclass finds the table position of a value with its own probe loop, as only it can compare values, and does everything else
+ * through the slots and positions of this class.
+ */
+abstract class PrimitiveLinkedList {
+
+  static final int NIL = -1;
+  // hash table entries hold slot + 1 so that zero means empty
+  static final int EMPTY = 0;
+  static final int DELETED = -1;
+
+  int[] prev;
+  int[] next;
+  int[] table;
+  int head = NIL;
+  int tail = NIL;
+  int modCount;
+  // chain of free slots linked through next
+  private int free = NIL;
+  // number of slots that have ever been used
+  private int used;
+  private int size;
+  private int deleted;
+
+  /**
+   * @param capacity the number of values the list can hold before growing.
+   */
+  PrimitiveLinkedList(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity MUST not be negative");
+    }
+    capacity = Math.max(capacity, 4);
+    prev = new int[capacity];
+    next = new int[capacity];
+    table = new int[tableLength(capacity)];
+  }
+
+  /**
+   * @return the hash of the value held in the slot, the same hash the subclass probes with.
+   */
+  abstract int hashOf(int slot);
+
+  /**
+   * Grows the subclass's value array to the given capacity.
+   */
+  abstract void grow(int capacity);
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(table, EMPTY);
+    head = NIL;
+    tail = NIL;
+    free = NIL;
+    used = 0;
+    size = 0;
+    deleted = 0;
+    modCount ++;
+  }
+
+  /**
+   * @return the slot held at a table position, or NIL if position is NIL.
+   */
+  final int slotAt(int position) {
+    return position != NIL ? table[position] - 1 : NIL;
+  }
+
+  /**
+   * @throws NoSuchElementException if the list is empty.
+   */
+  final int headSlot() {
+    if (head == NIL) {
+      throw new NoSuchElementException();
+    }
+    return head;
+  }
+
+  /**
+   * @throws NoSuchElementException if the list is empty.
+   */
+  final int tailSlot() {
+    if (tail == NIL) {
+      throw new NoSuchElementException();
+    }
+    return tail;
+  }
+
+  /**
+   * Makes room in the hash table then takes a free slot for a new value. The caller stores the value in the slot and then calls
+   * {@link #linkSlot(int, int)}.
+   */
+  final int allocate() {
+    ensureTable();
+    if (free != NIL) {
+      int slot = free;
+      free = next[slot];
+      return slot;
+    }
+    if (used == prev.length) {
+      int capacity = prev.length + (prev.length >> 1);
+      prev = Arrays.copyOf(prev, capacity);
+      next = Arrays.copyOf(next, capacity);
+      grow(capacity);
+    }
+    return used++;
+  }
+
+  /**
+   * Links an allocated slot after another slot, or at the head if after is NIL, and hashes its value.
+   */
+  final void linkSlot(int slot, int after) {
+    prev[slot] = after;
+    next[slot] = after != NIL ? next[after] : head;
+    if (next[slot] != NIL) {
+      prev[next[slot]] = slot;
+    } else {
+      tail = slot;
+    }
+    if (after != NIL) {
+      next[after] = slot;
+    } else {
+      head = slot;
+    }
+    hash(slot);
+    size ++;
+    modCount ++;
+  }
+
+  /**
+   * Removes the value at a table position from the table and unlinks its slot, freeing it for reuse.
+   */
+  final void unlink(int position) {
+    int slot = unhash(position);
+    if (prev[slot] != NIL) {
+      next[prev[slot]] = next[slot];
+    } else {
+      head = next[slot];
+    }
+    if (next[slot] != NIL) {
+      prev[next[slot]] = prev[slot];
+    } else {
+      tail = prev[slot];
+    }
+    next[slot] = free;
+    free = slot;
+    size --;
+    modCount ++;
+  }
+
+  /**
+   * Makes room in the hash table for one more value, must be called before the list is changed as rehashing walks the list.
+   */
+  final void ensureTable() {
+    if ((size + deleted + 1) * 2 > table.length) {
+      rehash(tableLength(Math.max(size + 1, prev.length)));
+    }
+  }
+
+  final void hash(int slot) {
+    int mask = table.length - 1;
+    int i = hashOf(slot) & mask;
+    while (table[i] != EMPTY && table[i] != DELETED) {
+      i = (i + 1) & mask;
+    }
+    if (table[i] == DELETED) {
+      deleted --;
+    }
+    table[i] = slot + 1;
+  }
+
+  /**
+   * Removes the entry at a table position.
+   *
+   * @return the slot the entry held.
+   */
+  final int unhash(int position) {
+    int slot = table[position] - 1;
+    table[position] = DELETED;
+    deleted ++;
+    return slot;
+  }
+
+  private void rehash(int length) {
+    table = new int[length];
+    deleted = 0;
+    int mask = length - 1;
+    for (int slot = head; slot != NIL; slot = next[slot]) {
+      int i = hashOf(slot) & mask;
+      while (table[i] != EMPTY) {
+        i = (i + 1) & mask;
+      }
+      table[i] = slot + 1;
+    }
+  }
+
+  final void checkForComodification(int expectedModCount) {
+    if (modCount != expectedModCount) {
+      throw new ConcurrentModificationException("List has been modified");
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(getClass().getSimpleName()).append(": [");
+    for (int slot = head; slot != NIL; slot = next[slot]) {
+      sb.append(valueString(slot));
+      if (next[slot] != NIL) {
+        sb.append(", ");
+      }
+    }
+    return sb.append("]").toString();
+  }
+
+  abstract String valueString(int slot);
+
+  // keeps the table at most half full
+  private static int tableLength(int capacity) {
+    return Integer.highestOneBit(Math.max(capacity, 2) * 4 - 1);
+  }
+}
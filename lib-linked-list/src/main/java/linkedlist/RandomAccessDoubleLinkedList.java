@@ -1,16 +1,93 @@
 package linkedlist;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
 
   private Node head;
   private Node tail;
-  private final Map<E, Node> randomAccessMap = new HashMap<>();
+  private Map<E, Node> randomAccessMap;
+  private final ListOption[] options;
+  private final List<SecondaryIndex<?, E>> indexes = new ArrayList<>(0);
+  private final boolean lazyIndex;
+  // the number of elements added while the random access map is deferred, see ListOption.LAZY_INDEX
+  private int unindexed;
+  private boolean deferred;
+
+  /**
+   * @param options the {@link ListOption}s to apply, {@link ListOption#IDENTITY_KEYS} finds elements by identity,
+   *     {@link ListOption#LAZY_INDEX} defers the random access map until the first keyed operation.
+   */
+  public RandomAccessDoubleLinkedList(ListOption... options) {
+    this.options = options.clone();
+    this.lazyIndex = Arrays.asList(options).contains(ListOption.LAZY_INDEX);
+    this.deferred = lazyIndex;
+    this.randomAccessMap = newMap(0);
+  }
+
+  private Map<E, Node> newMap(int expectedSize) {
+    if (Arrays.asList(options).contains(ListOption.IDENTITY_KEYS)) {
+      return new IdentityHashMap<>(Math.max(32, expectedSize));
+    }
+    return new HashMap<>(Math.max(16, (int) (expectedSize / 0.75f) + 1));
+  }
+
+  /**
+   * Builds the random access map of a deferred list in one pass in to a map pre-sized for the list.
+   *
+   * @return the random access map.
+   */
+  private Map<E, Node> map() {
+    if (deferred) {
+      randomAccessMap = newMap(unindexed);
+      for (Node node = head; node != null; node = node.next) {
+        randomAccessMap.put(node.item, node);
+      }
+      unindexed = 0;
+      deferred = false;
+    }
+    return randomAccessMap;
+  }
+
+  /**
+   * Creates a {@link SecondaryIndex} of the elements of this list that is kept up to date as the list changes.
+   *
+   * @param keyExtractor derives the key of each element.
+   * @param type the type of map used to hold the keys.
+   * @return the new index, populated with the current elements.
+   */
+  public <K> SecondaryIndex<K, E> addIndex(Function<? super E, ? extends K> keyExtractor, SecondaryIndex.Type type) {
+    SecondaryIndex<K, E> index = new SecondaryIndex<>(keyExtractor, type, options);
+    for (Node node = head; node != null; node = node.next) {
+      index.added(node.item);
+    }
+    indexes.add(index);
+    return index;
+  }
+
+  /**
+   * @return an immutable copy of this list packed in to an array, see {@link FrozenList}, {@link FrozenList#thaw()} returns a
+   *     mutable copy. Secondary indexes are not carried over.
+   */
+  public FrozenList<E> freeze() {
+    return new FrozenList<>(this, options);
+  }
 
   private class Node {
     Node prev;
@@ -36,19 +113,110 @@ public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
       }
       tail.prev = after;
     }
-    randomAccessMap.put(e, tail);
+    if (deferred) {
+      unindexed ++;
+    } else {
+      randomAccessMap.put(e, tail);
+    }
+    indexAdded(e);
     return true;
   }
 
+  /**
+   * Inserts an element at the head of the list.
+   */
+  public void addFirst(E e) {
+    Node node = new Node(e, null);
+    node.next = head;
+    if (head != null) {
+      head.prev = node;
+    } else {
+      tail = node;
+    }
+    head = node;
+    if (deferred) {
+      unindexed ++;
+    } else {
+      randomAccessMap.put(e, node);
+    }
+    indexAdded(e);
+  }
+
+  /**
+   * Relinks an element at the head of the list in constant time.
+   *
+   * @return false if the element is not in the list.
+   */
+  public boolean moveToHead(E e) {
+    Node node = map().get(e);
+    if (node == null) {
+      return false;
+    }
+    if (node == head) {
+      return true;
+    }
+    node.prev.next = node.next;
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    } else {
+      tail = node.prev;
+    }
+    node.prev = null;
+    node.next = head;
+    head.prev = node;
+    head = node;
+    return true;
+  }
+
+  /**
+   * @return the element at the tail of the list, or null if the list is empty.
+   */
+  public E peekTail() {
+    return tail != null ? tail.item : null;
+  }
+
+  /**
+   * Removes and returns the element at the tail of the list.
+   *
+   * @return the removed element, or null if the list is empty.
+   */
+  public E pollTail() {
+    if (tail == null) {
+      return null;
+    }
+    Node node = tail;
+    if (deferred) {
+      unindexed --;
+    } else {
+      randomAccessMap.remove(node.item);
+    }
+    tail = node.prev;
+    if (tail != null) {
+      tail.next = null;
+    } else {
+      head = null;
+    }
+    indexRemoved(node.item);
+    return node.item;
+  }
+
   @Override
   public Iterator<E> iterator() {
-    return iterator(head.item);
+    return iterator(head);
   }
 
   public Iterator<E> iterator(E from) {
+    Node node = map().get(from);
+    if (node == null) {
+      throw new IllegalArgumentException("Could not find list node for [" + from + "]");
+    }
+    return iterator(node);
+  }
+
+  private Iterator<E> iterator(Node from) {
     return new Iterator<E>() {
-      int checkSize = randomAccessMap.size();
-      Node current = randomAccessMap.get(from);
+      int checkSize = size();
+      Node current = from;
 
       @Override
       public boolean hasNext() {
@@ -71,23 +239,23 @@ public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
 
   @Override
   public int size() {
-    return randomAccessMap.size();
+    return randomAccessMap.size() + unindexed;
   }
 
   @Override
   public boolean isEmpty() {
-    return randomAccessMap.isEmpty();
+    return head == null;
   }
 
   @Override
   public boolean contains(Object o) {
-    return randomAccessMap.containsKey(o);
+    return map().containsKey(o);
   }
 
   @Override
   public Object[] toArray() {
-    int checkSize = randomAccessMap.size();
-    Object[] result = new Object[randomAccessMap.size()];
+    int checkSize = size();
+    Object[] result = new Object[checkSize];
     int i = 0;
     Node node = head;
     while (node != null) {
@@ -101,12 +269,12 @@ public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
   @Override
   @SuppressWarnings("unchecked")
   public <T> T[] toArray(T[] a) {
-    int checkSize = randomAccessMap.size();
-    if (a.length < randomAccessMap.size()) {
+    int checkSize = size();
+    if (a.length < checkSize) {
       a =
           (T[])
               java.lang.reflect.Array.newInstance(
-                  a.getClass().getComponentType(), randomAccessMap.size());
+                  a.getClass().getComponentType(), checkSize);
     }
     int i = 0;
     Object[] result = a;
@@ -115,8 +283,8 @@ public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
       result[i++] = x.item;
     }
 
-    if (a.length > randomAccessMap.size()) {
-      a[randomAccessMap.size()] = null;
+    if (a.length > checkSize) {
+      a[checkSize] = null;
     }
 
     return a;
@@ -124,20 +292,19 @@ public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
 
   @Override
   public boolean remove(Object o) {
-    Node remove = randomAccessMap.remove(o);
+    Node remove = map().remove(o);
     if (remove != null) {
       if (remove.prev != null) {
         remove.prev.next = remove.next;
-      }
-      if (remove.next != null) {
-        remove.next.prev = remove.prev.next;
-      }
-      if (remove == head) {
+      } else {
         head = remove.next;
       }
-      if (remove == tail) {
+      if (remove.next != null) {
+        remove.next.prev = remove.prev;
+      } else {
         tail = remove.prev;
       }
+      indexRemoved(remove.item);
       return true;
     }
     return false;
@@ -145,7 +312,7 @@ public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
 
   @Override
   public boolean containsAll(Collection<?> c) {
-    return randomAccessMap.keySet().containsAll(c);
+    return map().keySet().containsAll(c);
   }
 
   @Override
@@ -156,28 +323,121 @@ public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
     return true;
   }
 
+  /**
+   * Removes the given elements, small collections are removed one by one through the map otherwise the list is filtered in a single
+   * pass against a copy of the collection in a hash set, see {@link #removeIf(Predicate)}.
+   */
   @Override
   public boolean removeAll(Collection<?> c) {
-    for (Object e : c) {
-      remove(e);
+    Objects.requireNonNull(c);
+    if (c.size() < size() / 8) {
+      boolean modified = false;
+      for (Object e : c) {
+        modified |= remove(e);
+      }
+      return modified;
     }
-    return true;
+    Set<Object> removed = keySet(c);
+    return removeIf(removed::contains);
   }
 
   @Override
   public boolean retainAll(Collection<?> c) {
-    return false;
+    Objects.requireNonNull(c);
+    Set<Object> retained = keySet(c);
+    return removeIf(e -> !retained.contains(e));
+  }
+
+  /**
+   * @return a set of the elements that matches them as the random access map does, by identity with
+   *     {@link ListOption#IDENTITY_KEYS}.
+   */
+  private Set<Object> keySet(Collection<?> c) {
+    Set<Object> keys = Arrays.asList(options).contains(ListOption.IDENTITY_KEYS)
+        ? Collections.newSetFromMap(new IdentityHashMap<>(c.size()))
+        : new HashSet<>((int) (c.size() / 0.75f) + 1);
+    keys.addAll(c);
+    return keys;
+  }
+
+  /**
+   * Removes every element matching the filter in two walks of the list. The filter is tested on every element before any is removed,
+   * so a filter that throws leaves the list unchanged. The second walk only rewrites the links either side of each run of removed
+   * elements and the list is checked for concurrent modification once, between the walks.
+   */
+  @Override
+  public boolean removeIf(Predicate<? super E> filter) {
+    Objects.requireNonNull(filter);
+    int checkSize = size();
+    BitSet matches = new BitSet();
+    int position = 0;
+    for (Node node = head; node != null; node = node.next) {
+      if (filter.test(node.item)) {
+        matches.set(position);
+      }
+      position ++;
+    }
+    checkForComodification(checkSize);
+    if (matches.isEmpty()) {
+      return false;
+    }
+    position = 0;
+    Node kept = null;
+    for (Node node = head; node != null; node = node.next) {
+      if (matches.get(position++)) {
+        if (deferred) {
+          unindexed --;
+        } else {
+          randomAccessMap.remove(node.item);
+        }
+        indexRemoved(node.item);
+      } else {
+        if (node.prev != kept) {
+          // the end of a run of removed elements
+          node.prev = kept;
+          if (kept != null) {
+            kept.next = node;
+          } else {
+            head = node;
+          }
+        }
+        kept = node;
+      }
+    }
+    if (kept != null) {
+      kept.next = null;
+    } else {
+      head = null;
+    }
+    tail = kept;
+    return true;
+  }
+
+  /**
+   * Performs the action for each element in list order, the list is checked for concurrent modification once at the end.
+   */
+  @Override
+  public void forEach(Consumer<? super E> action) {
+    Objects.requireNonNull(action);
+    int checkSize = size();
+    for (Node node = head; node != null; node = node.next) {
+      action.accept(node.item);
+    }
+    checkForComodification(checkSize);
   }
 
   @Override
   public void clear() {
     randomAccessMap.clear();
+    unindexed = 0;
+    deferred = lazyIndex;
+    indexes.forEach(SecondaryIndex::clear);
     head = null;
     tail = null;
   }
 
   public E get(Object o) {
-    Node node = randomAccessMap.get(o);
+    Node node = map().get(o);
     if (node != null) {
       return node.item;
     }
@@ -185,7 +445,7 @@ public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
   }
 
   public void insertAfter(E after, E item) {
-    Node afterNode = randomAccessMap.get(after);
+    Node afterNode = map().get(after);
     if (afterNode == null) {
       throw new IllegalArgumentException("Could not find list node for [" + after + "]");
     }
@@ -193,26 +453,37 @@ public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
     if (afterNode.next != null) {
       node.next = afterNode.next;
       node.next.prev = node;
+    } else {
+      tail = node;
     }
     afterNode.next = node;
     randomAccessMap.put(item, node);
+    indexAdded(item);
   }
 
   public void replace(E was, E item) {
-    Node itemNode = randomAccessMap.get(was);
+    Node itemNode = map().remove(was);
     if (itemNode == null) {
       throw new IllegalArgumentException("Could not find list node for [" + was + "]");
     }
     itemNode.item = item;
+    randomAccessMap.put(item, itemNode);
+    for (SecondaryIndex<?, E> index : indexes) {
+      index.replaced(was, item);
+    }
   }
 
   public void replace(E from, E to, Collection<E> items) {
-    Node fromNode = randomAccessMap.get(from);
+    Node fromNode = map().get(from);
     Node toNode = randomAccessMap.get(to);
     if (fromNode == null || toNode == null) {
       throw new IllegalArgumentException("Could not find list node for from or to");
     }
-    // disconnect the old block
+    // disconnect the old block and drop it from the map
+    for (Node old = fromNode.next; old != null && old != toNode; old = old.next) {
+      randomAccessMap.remove(old.item);
+      indexRemoved(old.item);
+    }
     if (fromNode.next != null) {
       fromNode.next.prev = null;
     }
@@ -227,7 +498,9 @@ public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
       prev.next = node;
       prev = node;
       randomAccessMap.put(item, node);
+      indexAdded(item);
     }
+    node.next = toNode;
     toNode.prev = node;
   }
 
@@ -253,8 +526,20 @@ public class RandomAccessDoubleLinkedList<E> implements Collection<E> {
     return sb.toString();
   }
 
+  private void indexAdded(E e) {
+    for (SecondaryIndex<?, E> index : indexes) {
+      index.added(e);
+    }
+  }
+
+  private void indexRemoved(E e) {
+    for (SecondaryIndex<?, E> index : indexes) {
+      index.removed(e);
+    }
+  }
+
   private void checkForComodification(int checkSize) {
-    if (randomAccessMap.size() != checkSize) {
+    if (size() != checkSize) {
       throw new ConcurrentModificationException("List size has changed");
     }
   }
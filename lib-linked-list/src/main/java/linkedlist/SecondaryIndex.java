@@ -0,0 +1,128 @@
+package linkedlist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Finds list elements by a key derived from each element, for example all items on a channel or the item with an external asset id.
+ * <br/>
+ * An index is created by the list it indexes, see {@code RandomAccessDoubleLinkedList.addIndex} and
+ * {@code PartitionedLinkedList.addIndex}, and is kept up to date on every mutation of that list. A {@link Type#HASH} index finds
+ * the elements of a key in O(1) and a {@link Type#SORTED} index in O(log n) and also answers key range queries.
+ * <br/>
+ * Lookups return elements, the owning list's random access map then positions an iterator at any of them in O(1), for example
+ * {@code list.iterator(index.first(key))}. Elements sharing a key are returned in the order they were indexed, or in no
+ * particular order when the list uses {@link ListOption#IDENTITY_KEYS}.
+ * <br/>
+ * The key of an element must not change while the element is in the list and elements with a null key are not indexed.
+ *
+ * @param <K> the generic type of the keys.
+ * @param <E> the generic type of the list elements.
+ */
+public class SecondaryIndex<K, E> implements ElementListener<E> {
+
+  public enum Type {
+    HASH, SORTED
+  }
+
+  private final Function<? super E, ? extends K> keyExtractor;
+  private final Map<K, Set<E>> entries;
+  private final boolean identityKeys;
+
+  /**
+   * @param keyExtractor derives the key of each element.
+   * @param type the type of map used to hold the keys, keys of a {@link Type#SORTED} index must be {@link Comparable}.
+   * @param options the {@link ListOption}s of the indexed list, {@link ListOption#IDENTITY_KEYS} holds elements by identity.
+   */
+  public SecondaryIndex(Function<? super E, ? extends K> keyExtractor, Type type, ListOption... options) {
+    Objects.requireNonNull(keyExtractor);
+    Objects.requireNonNull(type);
+    this.keyExtractor = keyExtractor;
+    this.entries = type == Type.SORTED ? new TreeMap<>() : new HashMap<>();
+    this.identityKeys = List.of(options).contains(ListOption.IDENTITY_KEYS);
+  }
+
+  /**
+   * @return the elements with the given key, empty if there are none.
+   */
+  public Set<E> get(K key) {
+    Set<E> elements = entries.get(key);
+    return elements != null ? Collections.unmodifiableSet(elements) : Collections.emptySet();
+  }
+
+  /**
+   * @return the first indexed element with the given key, or null if there is none.
+   */
+  public E first(K key) {
+    Set<E> elements = entries.get(key);
+    return elements != null ? elements.iterator().next() : null;
+  }
+
+  public boolean containsKey(K key) {
+    return entries.containsKey(key);
+  }
+
+  /**
+   * @return the number of distinct keys.
+   */
+  public int keyCount() {
+    return entries.size();
+  }
+
+  /**
+   * @return the elements with a key from, inclusive, to, exclusive, in key order.
+   * @throws UnsupportedOperationException if the index is not {@link Type#SORTED}.
+   */
+  public List<E> range(K from, K to) {
+    if (!(entries instanceof NavigableMap<K, Set<E>> sorted)) {
+      throw new UnsupportedOperationException("Range queries require a SORTED index");
+    }
+    List<E> result = new ArrayList<>();
+    sorted.subMap(from, true, to, false).values().forEach(result::addAll);
+    return result;
+  }
+
+  @Override
+  public void added(E element) {
+    K key = keyExtractor.apply(element);
+    if (key != null) {
+      entries.computeIfAbsent(key, k -> newSet()).add(element);
+    }
+  }
+
+  @Override
+  public void removed(E element) {
+    K key = keyExtractor.apply(element);
+    if (key == null) {
+      return;
+    }
+    Set<E> elements = entries.get(key);
+    if (elements != null && elements.remove(element) && elements.isEmpty()) {
+      entries.remove(key);
+    }
+  }
+
+  @Override
+  public void replaced(E was, E now) {
+    removed(was);
+    added(now);
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+  private Set<E> newSet() {
+    return identityKeys ? Collections.newSetFromMap(new IdentityHashMap<>()) : new LinkedHashSet<>();
+  }
+}
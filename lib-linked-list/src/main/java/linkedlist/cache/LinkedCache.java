@@ -0,0 +1,388 @@
+package linkedlist.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import linkedlist.RandomAccessDoubleLinkedList;
+
+/**
+ * A bounded cache that keeps the recency, or frequency, order of its keys in {@link RandomAccessDoubleLinkedList}s so that every
+ * access is a constant time {@code moveToHead} and every eviction a constant time {@code pollTail}.
+ * <br/>
+ * Entries are evicted once the total weight of a stripe exceeds its share of the maximum weight, by default every entry weighs one
+ * so the maximum weight is a maximum size. The eviction {@link Policy} decides which entry is evicted:
+ * <ul>
+ * <li>{@link Policy#LRU} evicts the least recently used entry.</li>
+ * <li>{@link Policy#SEGMENTED_LRU} admits new entries to a probation segment and promotes them to a protected segment, limited to
+ * 80% of the weight, on their second access. Entries demoted from the protected segment return to probation so a scan of one-off
+ * keys cannot flush frequently used entries.</li>
+ * <li>{@link Policy#LFU} evicts the least frequently used entry, ties are broken by recency.</li>
+ * </ul>
+ * Keys are spread over independently locked stripes, reads update the order of their keys so they also take the stripe lock but
+ * readers of keys in different stripes never contend. Eviction listeners are called after the stripe lock has been released.
+ *
+ * @param <K> the generic type of the keys, which must have well behaved {@code equals} and {@code hashCode}.
+ * @param <V> the generic type of the values.
+ */
+public class LinkedCache<K, V> {
+
+  public enum Policy {
+    LRU, SEGMENTED_LRU, LFU
+  }
+
+  @FunctionalInterface
+  public interface Weigher<K, V> {
+
+    /**
+     * @return the weight of an entry, must not be negative.
+     */
+    int weigh(K key, V value);
+  }
+
+  @FunctionalInterface
+  public interface EvictionListener<K, V> {
+
+    /**
+     * Called when an entry is evicted to keep the cache within its maximum weight, not when it is removed or replaced.
+     */
+    void evicted(K key, V value);
+  }
+
+  public record Stats(long hits, long misses, long evictions, long evictedWeight) {
+
+    /**
+     * @return the ratio of hits to requests, 1.0 if there have been no requests.
+     */
+    public double hitRate() {
+      long requests = hits + misses;
+      return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+  }
+
+  private static final class Entry<V> {
+    V value;
+    int weight;
+    int frequency;
+    boolean isProtected;
+
+    Entry(V value, int weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  private final Segment[] segments;
+  private final Policy policy;
+  private final Weigher<? super K, ? super V> weigher;
+  private final EvictionListener<? super K, ? super V> listener;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder evictedWeight = new LongAdder();
+
+  /**
+   * Creates a single stripe LRU cache holding at most maximumSize entries.
+   */
+  public LinkedCache(int maximumSize) {
+    this(maximumSize, (k, v) -> 1, Policy.LRU, 1, null);
+  }
+
+  /**
+   * @param maximumWeight the maximum total weight of the cache, shared equally between the stripes.
+   * @param weigher calculates the weight of each entry.
+   * @param policy the eviction policy.
+   * @param stripes the number of independently locked stripes, rounded up to a power of two.
+   * @param listener notified of evicted entries, may be null.
+   */
+  public LinkedCache(long maximumWeight, Weigher<? super K, ? super V> weigher, Policy policy, int stripes,
+      EvictionListener<? super K, ? super V> listener) {
+    Objects.requireNonNull(weigher);
+    Objects.requireNonNull(policy);
+    if (maximumWeight < 1) {
+      throw new IllegalArgumentException("maximumWeight MUST be positive");
+    }
+    if (stripes < 1) {
+      throw new IllegalArgumentException("stripes MUST be positive");
+    }
+    this.policy = policy;
+    this.weigher = weigher;
+    this.listener = listener;
+    int count = Integer.highestOneBit(stripes * 2 - 1);
+    segments = newSegments(count);
+    long segmentWeight = Math.max(1, (maximumWeight + count - 1) / count);
+    for (int i = 0; i < count; i++) {
+      segments[i] = new Segment(segmentWeight);
+    }
+  }
+
+  /**
+   * @return the cached value, or null if there is none.
+   */
+  public V get(K key) {
+    Objects.requireNonNull(key);
+    Segment segment = segmentFor(key);
+    segment.lock.lock();
+    try {
+      Entry<V> entry = segment.entries.get(key);
+      if (entry == null) {
+        misses.increment();
+        return null;
+      }
+      hits.increment();
+      segment.touch(key, entry);
+      return entry.value;
+    } finally {
+      segment.lock.unlock();
+    }
+  }
+
+  /**
+   * Caches a value, evicting entries if the stripe of the key exceeds its maximum weight.
+   *
+   * @return the previous value, or null if there was none.
+   */
+  public V put(K key, V value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+    int weight = weigher.weigh(key, value);
+    if (weight < 0) {
+      throw new IllegalArgumentException("weight MUST not be negative");
+    }
+    Segment segment = segmentFor(key);
+    List<Map.Entry<K, V>> evicted = new ArrayList<>(0);
+    V previous = null;
+    segment.lock.lock();
+    try {
+      Entry<V> entry = segment.entries.get(key);
+      if (entry != null) {
+        previous = entry.value;
+        segment.weight += weight - entry.weight;
+        if (entry.isProtected) {
+          segment.protectedWeight += weight - entry.weight;
+        }
+        entry.value = value;
+        entry.weight = weight;
+        segment.touch(key, entry);
+        segment.evict(evicted, 0);
+      } else {
+        // make room first so a new entry is never its own victim
+        segment.evict(evicted, weight);
+        entry = new Entry<>(value, weight);
+        segment.entries.put(key, entry);
+        segment.weight += weight;
+        segment.admit(key, entry);
+      }
+    } finally {
+      segment.lock.unlock();
+    }
+    notifyEvicted(evicted);
+    return previous;
+  }
+
+  /**
+   * @return the removed value, or null if there was none.
+   */
+  public V remove(K key) {
+    Objects.requireNonNull(key);
+    Segment segment = segmentFor(key);
+    segment.lock.lock();
+    try {
+      Entry<V> entry = segment.entries.remove(key);
+      if (entry == null) {
+        return null;
+      }
+      segment.unlink(key, entry);
+      return entry.value;
+    } finally {
+      segment.lock.unlock();
+    }
+  }
+
+  public void invalidateAll() {
+    for (Segment segment : segments) {
+      segment.lock.lock();
+      try {
+        segment.clear();
+      } finally {
+        segment.lock.unlock();
+      }
+    }
+  }
+
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      segment.lock.lock();
+      try {
+        size += segment.entries.size();
+      } finally {
+        segment.lock.unlock();
+      }
+    }
+    return size;
+  }
+
+  public long weightedSize() {
+    long weight = 0;
+    for (Segment segment : segments) {
+      segment.lock.lock();
+      try {
+        weight += segment.weight;
+      } finally {
+        segment.lock.unlock();
+      }
+    }
+    return weight;
+  }
+
+  public Stats stats() {
+    return new Stats(hits.sum(), misses.sum(), evictions.sum(), evictedWeight.sum());
+  }
+
+  private Segment segmentFor(K key) {
+    int h = key.hashCode();
+    h ^= h >>> 16;
+    return segments[h & (segments.length - 1)];
+  }
+
+  @SuppressWarnings("unchecked")
+  private Segment[] newSegments(int length) {
+    return (Segment[]) new LinkedCache<?, ?>.Segment[length];
+  }
+
+  private void notifyEvicted(List<Map.Entry<K, V>> evicted) {
+    if (listener != null) {
+      for (Map.Entry<K, V> entry : evicted) {
+        listener.evicted(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * A stripe of the cache, every method must be called holding the lock.
+   */
+  private final class Segment {
+    final ReentrantLock lock = new ReentrantLock();
+    final long maximumWeight;
+    final long protectedMaximum;
+    final Map<K, Entry<V>> entries = new HashMap<>();
+    // recency order for LRU, the probation segment for SEGMENTED_LRU, the head is the most recently used
+    final RandomAccessDoubleLinkedList<K> probation = new RandomAccessDoubleLinkedList<>();
+    // the protected segment for SEGMENTED_LRU
+    final RandomAccessDoubleLinkedList<K> protectedSegment = new RandomAccessDoubleLinkedList<>();
+    // recency order of the keys with each access count for LFU
+    final TreeMap<Integer, RandomAccessDoubleLinkedList<K>> frequencies = new TreeMap<>();
+    long weight;
+    long protectedWeight;
+
+    Segment(long maximumWeight) {
+      this.maximumWeight = maximumWeight;
+      this.protectedMaximum = maximumWeight * 4 / 5;
+    }
+
+    void admit(K key, Entry<V> entry) {
+      if (policy == Policy.LFU) {
+        entry.frequency = 1;
+        frequencies.computeIfAbsent(1, f -> new RandomAccessDoubleLinkedList<>()).addFirst(key);
+      } else {
+        probation.addFirst(key);
+      }
+    }
+
+    void touch(K key, Entry<V> entry) {
+      switch (policy) {
+        case LRU -> probation.moveToHead(key);
+        case SEGMENTED_LRU -> {
+          if (entry.isProtected) {
+            protectedSegment.moveToHead(key);
+          } else {
+            promote(key, entry);
+          }
+        }
+        case LFU -> {
+          RandomAccessDoubleLinkedList<K> list = frequencies.get(entry.frequency);
+          list.remove(key);
+          if (list.isEmpty()) {
+            frequencies.remove(entry.frequency);
+          }
+          entry.frequency = entry.frequency == Integer.MAX_VALUE ? entry.frequency : entry.frequency + 1;
+          frequencies.computeIfAbsent(entry.frequency, f -> new RandomAccessDoubleLinkedList<>()).addFirst(key);
+        }
+      }
+    }
+
+    private void promote(K key, Entry<V> entry) {
+      probation.remove(key);
+      protectedSegment.addFirst(key);
+      entry.isProtected = true;
+      protectedWeight += entry.weight;
+      // demote the least recently used protected entries back to the head of probation
+      while (protectedWeight > protectedMaximum && protectedSegment.size() > 1) {
+        K demoted = protectedSegment.pollTail();
+        Entry<V> demotedEntry = entries.get(demoted);
+        demotedEntry.isProtected = false;
+        protectedWeight -= demotedEntry.weight;
+        probation.addFirst(demoted);
+      }
+    }
+
+    void unlink(K key, Entry<V> entry) {
+      weight -= entry.weight;
+      if (policy == Policy.LFU) {
+        RandomAccessDoubleLinkedList<K> list = frequencies.get(entry.frequency);
+        list.remove(key);
+        if (list.isEmpty()) {
+          frequencies.remove(entry.frequency);
+        }
+      } else if (entry.isProtected) {
+        protectedWeight -= entry.weight;
+        protectedSegment.remove(key);
+      } else {
+        probation.remove(key);
+      }
+    }
+
+    /**
+     * Evicts entries until the incoming weight fits within the maximum weight, or the segment is empty.
+     */
+    void evict(List<Map.Entry<K, V>> evicted, long incoming) {
+      while (weight + incoming > maximumWeight && !entries.isEmpty()) {
+        K victim = victim();
+        Entry<V> entry = entries.remove(victim);
+        weight -= entry.weight;
+        if (entry.isProtected) {
+          protectedWeight -= entry.weight;
+        }
+        evictions.increment();
+        evictedWeight.add(entry.weight);
+        evicted.add(Map.entry(victim, entry.value));
+      }
+    }
+
+    private K victim() {
+      if (policy == Policy.LFU) {
+        Map.Entry<Integer, RandomAccessDoubleLinkedList<K>> least = frequencies.firstEntry();
+        K victim = least.getValue().pollTail();
+        if (least.getValue().isEmpty()) {
+          frequencies.remove(least.getKey());
+        }
+        return victim;
+      }
+      return probation.isEmpty() ? protectedSegment.pollTail() : probation.pollTail();
+    }
+
+    void clear() {
+      entries.clear();
+      probation.clear();
+      protectedSegment.clear();
+      frequencies.clear();
+      weight = 0;
+      protectedWeight = 0;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package linkedlist.partitioned;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * An order independent summary of a group of elements, for example a count or the earliest index, that
+ * {@link PartitionedLinkedList} maintains for each partition as elements are added, removed and replaced.
+ * <br/>
+ * {@link #combine(Object, Object)} must be associative and commutative and {@link #identity()} its identity, as elements are
+ * accumulated in the order they are added to a partition and summaries are combined with elements taken in index order, so a
+ * summary such as the first element added is not supported. Summaries should be immutable values.
+ * <br/>
+ * An invertible aggregator, such as a count or a sum, can take a removed element out of a summary. The summary of a partition is
+ * otherwise recalculated from its elements the next time it is needed after an element has been removed or replaced.
+ *
+ * @param <E> the generic type of the elements.
+ * @param <A> the generic type of the summary.
+ */
+public interface Aggregator<E, A> {
+
+  /**
+   * @return the summary of no elements.
+   */
+  A identity();
+
+  /**
+   * @return the summary with the element added.
+   */
+  A accumulate(A summary, E element);
+
+  /**
+   * @return the summary of the elements of both left and right, whichever order they were accumulated in.
+   */
+  A combine(A left, A right);
+
+  /**
+   * @return true if {@link #remove(Object, Object)} is supported.
+   */
+  default boolean invertible() {
+    return false;
+  }
+
+  /**
+   * @return the summary with the element taken out.
+   * @throws UnsupportedOperationException if the aggregator is not invertible.
+   */
+  default A remove(A summary, E element) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Counts elements.
+   */
+  static <E> Aggregator<E, Long> count() {
+    return summingLong(e -> 1);
+  }
+
+  /**
+   * Sums a long valued property of each element, for example a duration in seconds.
+   */
+  static <E> Aggregator<E, Long> summingLong(ToLongFunction<? super E> mapper) {
+    Objects.requireNonNull(mapper);
+    return new Aggregator<>() {
+      @Override
+      public Long identity() {
+        return 0L;
+      }
+
+      @Override
+      public Long accumulate(Long summary, E element) {
+        return summary + mapper.applyAsLong(element);
+      }
+
+      @Override
+      public Long combine(Long left, Long right) {
+        return left + right;
+      }
+
+      @Override
+      public boolean invertible() {
+        return true;
+      }
+
+      @Override
+      public Long remove(Long summary, E element) {
+        return summary - mapper.applyAsLong(element);
+      }
+    };
+  }
+
+  /**
+   * Finds the least value of a property of the elements, the summary of no elements is null.
+   */
+  static <E, C extends Comparable<? super C>> Aggregator<E, C> min(Function<? super E, ? extends C> mapper) {
+    return extreme(mapper, Comparator.<C>naturalOrder().reversed());
+  }
+
+  /**
+   * Finds the greatest value of a property of the elements, the summary of no elements is null.
+   */
+  static <E, C extends Comparable<? super C>> Aggregator<E, C> max(Function<? super E, ? extends C> mapper) {
+    return extreme(mapper, Comparator.naturalOrder());
+  }
+
+  private static <E, C> Aggregator<E, C> extreme(Function<? super E, ? extends C> mapper, Comparator<C> greater) {
+    Objects.requireNonNull(mapper);
+    return new Aggregator<>() {
+      @Override
+      public C identity() {
+        return null;
+      }
+
+      @Override
+      public C accumulate(C summary, E element) {
+        return combine(summary, mapper.apply(element));
+      }
+
+      @Override
+      public C combine(C left, C right) {
+        if (left == null) {
+          return right;
+        }
+        return right == null || greater.compare(left, right) >= 0 ? left : right;
+      }
+    };
+  }
+}
@@ -1,19 +1,35 @@
 package linkedlist.partitioned;
 
 import java.util.AbstractSequentialList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import linkedlist.ElementListener;
+import linkedlist.ListOption;
 
 /**
  * A {@link List} implementation of a doubly linked list that also provides random access to it's contained elements.
  *
  * This implementation does not make use of indexing and therefore any method that attempts to use and index on the list interface throws {@link UnsupportedOperationException}
  *
+ * The random access map may be shared between several lists, by default every node records the list it belongs to so that lookups
+ * through the map can be validated. In compact mode nodes do not hold a reference to their list and ownership is derived from the
+ * element instead, saving a reference per element.
+ *
  * @param <E> the generic type of the contained elements.
  */
 public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
@@ -22,32 +38,155 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
     Node<E> prev;
     E item;
     Node<E> next;
-    List<E> parent;
 
-    Node(List<E> parent, E item, Node<E> prev) {
-      this.parent = parent;
+    Node(E item, Node<E> prev) {
       this.item = item;
       this.prev = prev;
     }
   }
 
-  private final Map<E, Node<E>> randomAccessMap;
+  static class OwnedNode<E> extends Node<E> {
+    List<E> parent;
+
+    OwnedNode(List<E> parent, E item, Node<E> prev) {
+      super(item, prev);
+      this.parent = parent;
+    }
+  }
+
+  private Map<E, Node<E>> randomAccessMap;
+  // null unless in compact mode
+  private final Predicate<? super E> owner;
+  // set when the list created its own random access map, which can then be replaced by a pre-sized map
+  private final boolean ownsMap;
+  // set while the random access map is not maintained, see ListOption.LAZY_INDEX
+  private boolean deferred;
   private Node<E> head;
   private Node<E> tail;
   private int size = 0;
-
+  private ElementListener<? super E> listener;
+
+  /**
+   * Creates a list with its own random access map. As the map is not shared {@link ListOption#COMPACT_NODES} treats every node in
+   * the map as belonging to this list.
+   *
+   * @param options the {@link ListOption}s to apply, {@link ListOption#IDENTITY_KEYS} finds elements by identity,
+   *     {@link ListOption#LAZY_INDEX} defers the random access map until the first keyed operation.
+   */
+  public DoubleLinkedList(ListOption... options) {
+    this(Arrays.asList(options).contains(ListOption.IDENTITY_KEYS) ? new IdentityHashMap<>() : new HashMap<>(),
+        Arrays.asList(options).contains(ListOption.COMPACT_NODES) ? e -> true : null, true);
+    this.deferred = Arrays.asList(options).contains(ListOption.LAZY_INDEX);
+  }
+
+  /**
+   * Creates a list backed by a map that may be shared with other lists, pass an {@link IdentityHashMap} to find elements by
+   * identity.
+   */
   public DoubleLinkedList(Map<E, Node<E>> randomAccessMap) {
+    this(randomAccessMap, null);
+  }
+
+  /**
+   * Creates a list in compact mode, nodes do not reference the list and the owner predicate decides whether an element found in
+   * the random access map belongs to this list. When the map is not shared the predicate can simply return true.
+   *
+   * @param randomAccessMap the map used to find the node of each element.
+   * @param owner tests whether an element belongs to this list, null to record the list in every node.
+   */
+  public DoubleLinkedList(Map<E, Node<E>> randomAccessMap, Predicate<? super E> owner) {
+    this(randomAccessMap, owner, false);
+  }
+
+  private DoubleLinkedList(Map<E, Node<E>> randomAccessMap, Predicate<? super E> owner, boolean ownsMap) {
+    this.randomAccessMap = randomAccessMap;
+    this.owner = owner;
+    this.ownsMap = ownsMap;
+  }
+
+  /**
+   * Stops maintaining the random access map of this empty list until the first keyed operation, see {@link ListOption#LAZY_INDEX}.
+   */
+  void deferIndex() {
+    if (head != null) {
+      throw new IllegalStateException("The index of a list with elements can not be deferred");
+    }
+    deferred = true;
+  }
+
+  /**
+   * Adds the entries of a list whose random access map has been deferred with a single walk of the list, the map is maintained on
+   * every mutation from then on. A list that created its own map replaces it with one pre-sized for the list.
+   */
+  void index() {
+    if (!deferred) {
+      return;
+    }
+    deferred = false;
+    if (ownsMap) {
+      randomAccessMap = randomAccessMap instanceof IdentityHashMap
+          ? new IdentityHashMap<>(size)
+          : new HashMap<>((int) (size / 0.75f) + 1);
+    }
+    for (Node<E> node = head; node != null; node = node.next) {
+      randomAccessMap.put(node.item, node);
+    }
+  }
+
+  /**
+   * Replaces the random access map shared with other lists, the entries of this list must already be in the new map.
+   */
+  void rebind(Map<E, Node<E>> randomAccessMap) {
     this.randomAccessMap = randomAccessMap;
   }
 
+  Node<E> newNode(E e, Node<E> prev) {
+    return owner == null ? new OwnedNode<>(this, e, prev) : new Node<>(e, prev);
+  }
+
+  boolean owns(Node<E> node) {
+    return owner == null ? ((OwnedNode<E>) node).parent == this : owner.test(node.item);
+  }
+
+  /**
+   * Unlike {@link #owns(Node)} the answer does not depend on the element, whose index may have changed since it was linked. In
+   * compact mode the chain is walked from the node towards both ends until the nearer end is reached.
+   *
+   * @return true if the node is linked in to this list.
+   */
+  boolean links(Node<E> node) {
+    if (node instanceof OwnedNode<E> owned) {
+      return owned.parent == this;
+    }
+    Node<E> back = node;
+    Node<E> forward = node;
+    while (true) {
+      if (back.prev == null) {
+        return back == head;
+      }
+      if (forward.next == null) {
+        return forward == tail;
+      }
+      back = back.prev;
+      forward = forward.next;
+    }
+  }
+
+  /**
+   * Sets the listener notified of every element linked in to, unlinked from or replaced in this list, null for none.
+   */
+  void listener(ElementListener<? super E> listener) {
+    this.listener = listener;
+  }
+
   @Override
   public boolean add(E e) {
     if (head == null) {
-      head = new Node<>(this, e, null);
+      head = newNode(e, null);
       tail = head;
     } else {
       Node<E> after = tail;
-      tail = new Node<>(this, e, tail);
+      tail = newNode(e, tail);
       if (after != null) {
         after.next = tail;
       }
@@ -55,7 +194,12 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
     }
     size ++;
     modCount ++;
-    randomAccessMap.put(e, tail);
+    if (!deferred) {
+      randomAccessMap.put(e, tail);
+    }
+    if (listener != null) {
+      listener.added(e);
+    }
     return true;
   }
 
@@ -71,17 +215,23 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
 
   @Override
   public boolean contains(Object o) {
-    Node<E> node = randomAccessMap.get(o);
-    return node != null && node.parent == this;
+    return node(o) != null;
   }
 
   @Override
   public boolean remove(Object o) {
-    return unlink(o) != null;
+    Node<E> element = node(o);
+    if (element == null) {
+      return false;
+    }
+    randomAccessMap.remove(o);
+    detach(element);
+    return true;
   }
 
   @Override
   public boolean containsAll(Collection<?> c) {
+    index();
     return randomAccessMap.keySet().containsAll(c);
   }
 
@@ -93,27 +243,138 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
     return true;
   }
 
+  /**
+   * Removes the given elements, small collections are removed one by one through the map otherwise the list is filtered in a single
+   * pass against a copy of the collection in a hash set, see {@link #removeIf(Predicate)}.
+   */
   @Override
   public boolean removeAll(Collection<?> c) {
-    for (Object e : c) {
-      remove(e);
+    Objects.requireNonNull(c);
+    if (c.size() < size / 8) {
+      boolean modified = false;
+      for (Object e : c) {
+        modified |= remove(e);
+      }
+      return modified;
     }
-    return true;
+    Set<Object> removed = keySet(c);
+    return removeIf(removed::contains);
   }
 
   @Override
   public boolean retainAll(Collection<?> c) {
-    // TODO Auto-generated method stub
-    return false;
+    Objects.requireNonNull(c);
+    Set<Object> retained = keySet(c);
+    return removeIf(e -> !retained.contains(e));
+  }
+
+  /**
+   * @return a set of the elements that matches them as the random access map does, by identity for an {@link IdentityHashMap}.
+   */
+  private Set<Object> keySet(Collection<?> c) {
+    Set<Object> keys = randomAccessMap instanceof IdentityHashMap
+        ? Collections.newSetFromMap(new IdentityHashMap<>(c.size()))
+        : new HashSet<>((int) (c.size() / 0.75f) + 1);
+    keys.addAll(c);
+    return keys;
+  }
+
+  /**
+   * Removes every element matching the filter in two walks of the list. The filter is tested on every element before any is removed,
+   * so a filter that throws leaves the list unchanged. The second walk only rewrites the links either side of each run of removed
+   * elements and the list is checked for concurrent modification once, between the walks.
+   */
+  @Override
+  public boolean removeIf(Predicate<? super E> filter) {
+    return unlinkIf(filter, e -> {
+      if (!deferred) {
+        randomAccessMap.remove(e);
+      }
+      if (listener != null) {
+        listener.removed(e);
+      }
+    });
+  }
+
+  /**
+   * Unlinks every element matching the filter, see {@link #removeIf(Predicate)}. The random access map and listener are not touched,
+   * each unlinked element is passed to the removed consumer instead.
+   */
+  boolean unlinkIf(Predicate<? super E> filter, Consumer<? super E> removed) {
+    Objects.requireNonNull(filter);
+    int expectedModCount = modCount;
+    BitSet matches = new BitSet();
+    int position = 0;
+    for (Node<E> node = head; node != null; node = node.next) {
+      if (filter.test(node.item)) {
+        matches.set(position);
+      }
+      position ++;
+    }
+    checkForComodification(expectedModCount);
+    if (matches.isEmpty()) {
+      return false;
+    }
+    position = 0;
+    Node<E> kept = null;
+    for (Node<E> node = head; node != null; node = node.next) {
+      if (matches.get(position++)) {
+        removed.accept(node.item);
+      } else {
+        if (node.prev != kept) {
+          // the end of a run of removed elements
+          node.prev = kept;
+          if (kept != null) {
+            kept.next = node;
+          } else {
+            head = node;
+          }
+        }
+        kept = node;
+      }
+    }
+    if (kept != null) {
+      kept.next = null;
+    } else {
+      head = null;
+    }
+    tail = kept;
+    size -= matches.cardinality();
+    modCount ++;
+    return true;
+  }
+
+  /**
+   * Performs the action for each element in list order, the list is checked for concurrent modification once at the end.
+   */
+  @Override
+  public void forEach(Consumer<? super E> action) {
+    Objects.requireNonNull(action);
+    int expectedModCount = modCount;
+    for (Node<E> node = head; node != null; node = node.next) {
+      action.accept(node.item);
+    }
+    checkForComodification(expectedModCount);
   }
 
   @Override
   public void clear() {
+    for (Node<E> node = head; node != null; node = node.next) {
+      if (!deferred) {
+        randomAccessMap.remove(node.item);
+      }
+      if (listener != null) {
+        listener.removed(node.item);
+      }
+    }
     head = null;
     tail = null;
+    size = 0;
+    modCount ++;
   }
 
   public E get(Object o) {
+    index();
     Node<E> node = randomAccessMap.get(o);
     if (node != null) {
       return node.item;
@@ -122,55 +383,128 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
   }
 
   private E unlink(Object o) {
-    Node<E> element = randomAccessMap.remove(o);
+    Node<E> element = node(o);
     if (element == null) {
       throw new NoSuchElementException();
     }
-    if (element.prev != null) {
-      element.prev.next = element.next;
+    randomAccessMap.remove(o);
+    detach(element);
+    return element.item;
+  }
+
+  /**
+   * @return the node of the given element if it belongs to this list, otherwise null.
+   */
+  Node<E> node(Object o) {
+    index();
+    Node<E> node = randomAccessMap.get(o);
+    return node != null && owns(node) ? node : null;
+  }
+
+  Node<E> head() {
+    return head;
+  }
+
+  /**
+   * Unlinks a node from the chain, the random access map is not touched so the node may be attached to another list.
+   */
+  void detach(Node<E> node) {
+    if (node.prev != null) {
+      node.prev.next = node.next;
+    } else {
+      head = node.next;
+    }
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    } else {
+      tail = node.prev;
     }
-    if (element.next != null) {
-      element.next.prev = element.prev.next;
+    node.prev = null;
+    node.next = null;
+    size --;
+    modCount ++;
+    if (listener != null) {
+      listener.removed(node.item);
     }
-    if (element == head) {
-      head = element.next;
+  }
+
+  /**
+   * Links a detached node after the given node, or at the head if after is null. The random access map is not touched.
+   */
+  void attach(Node<E> node, Node<E> after) {
+    if (node instanceof OwnedNode<E> owned) {
+      owned.parent = this;
     }
-    if (element == tail) {
-      tail = element.prev;
+    node.prev = after;
+    node.next = after != null ? after.next : head;
+    if (node.next != null) {
+      node.next.prev = node;
+    } else {
+      tail = node;
     }
-    size --;
+    if (after != null) {
+      after.next = node;
+    } else {
+      head = node;
+    }
+    size ++;
     modCount ++;
-    return element.item;
+    if (listener != null) {
+      listener.added(node.item);
+    }
   }
 
   private void linkAfter(E e, Node<E> afterNode) {
     if (afterNode == null) {
       throw new NoSuchElementException();
     }
-    Node<E> node = new Node<>(this, e, afterNode);
+    Node<E> node = newNode(e, afterNode);
     if (afterNode.next != null) {
       node.next = afterNode.next;
       node.next.prev = node;
+    } else {
+      tail = node;
     }
     afterNode.next = node;
-    randomAccessMap.put(e, node);
+    if (!deferred) {
+      randomAccessMap.put(e, node);
+    }
     size ++;
     modCount ++;
+    if (listener != null) {
+      listener.added(e);
+    }
   }
 
   private void linkHead(E e) {
     if (head == null) {
-      head = new Node<>(this, e, null);
+      head = newNode(e, null);
       tail = head;
     } else {
-      Node<E> newNode = new Node<>(this, e, null);
+      Node<E> newNode = newNode(e, null);
       newNode.next = head;
       head.prev = newNode;
       head = newNode;
     }
-    randomAccessMap.put(e, head);
+    if (!deferred) {
+      randomAccessMap.put(e, head);
+    }
     size ++;
     modCount ++;
+    if (listener != null) {
+      listener.added(e);
+    }
+  }
+
+  int modCount() {
+    return modCount;
+  }
+
+  /**
+   * Records a change made to the elements of the list's nodes by its owner, for example replacing them in place.
+   */
+  void modified() {
+    modCount ++;
   }
 
   private void checkForComodification(int expectedModCount) {
@@ -179,14 +513,58 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
     }
   }
 
+  /**
+   * Replaces the contents of this list with an already linked chain of nodes. The random access map is not touched, callers are
+   * responsible for indexing the nodes.
+   */
+  void adopt(Node<E> head, Node<E> tail, int size) {
+    this.head = head;
+    this.tail = tail;
+    this.size = size;
+    modCount ++;
+    if (listener != null) {
+      for (Node<E> node = head; node != null; node = node.next) {
+        listener.added(node.item);
+      }
+    }
+  }
+
+  /**
+   * Moves every node of another list in to this empty list without copying, the nodes keep their order. The random access map is
+   * not touched, callers are responsible for indexing the nodes.
+   * <br/>
+   * Only in compact mode with no listener on either list is the chain not walked, otherwise each node is rebound to this list or
+   * reported to the listeners.
+   */
+  void adoptFrom(DoubleLinkedList<E> other) {
+    Node<E> first = other.head;
+    Node<E> last = other.tail;
+    int count = other.size;
+    if (owner == null || other.listener != null) {
+      for (Node<E> node = first; node != null; node = node.next) {
+        if (owner == null) {
+          ((OwnedNode<E>) node).parent = this;
+        }
+        if (other.listener != null) {
+          other.listener.removed(node.item);
+        }
+      }
+    }
+    other.head = null;
+    other.tail = null;
+    other.size = 0;
+    other.modCount ++;
+    adopt(first, last, count);
+  }
+
   @Override
   public ListIterator<E> listIterator() {
-    return new ListItr(head.item);
+    return new ListItr(head);
   }
 
   @Override
   public Iterator<E> iterator() {
-    return new ListItr(head.item);
+    return new ListItr(head);
   }
 
   public Iterator<E> iterator(E from) {
@@ -203,13 +581,17 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
     private int expectedModCount = modCount;
 
     public ListItr(E from) {
-      Node<E> node = randomAccessMap.get(from);
-      if (node.parent != DoubleLinkedList.this) {
+      Node<E> node = node(from);
+      if (node == null) {
         throw new IllegalArgumentException("Element " + from + " does not belong to this linked list.");
       }
       this.next = node;
     }
 
+    ListItr(Node<E> from) {
+      this.next = from;
+    }
+
     @Override
     public boolean hasNext() {
       checkForComodification(expectedModCount);
@@ -221,9 +603,7 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
       if (!hasNext()) {
         throw new NoSuchElementException();
       }
-      checkForComodification(expectedModCount);
-      E result = null;
-      result = next.item;
+      E result = next.item;
       lastReturned = next;
       next = next.next;
       return result;
@@ -272,7 +652,14 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
         throw new IllegalStateException();
       }
       checkForComodification(expectedModCount);
+      E was = lastReturned.item;
       lastReturned.item = e;
+      // not a structural change but the replacement may have a different index
+      modCount ++;
+      expectedModCount ++;
+      if (listener != null) {
+        listener.replaced(was, e);
+      }
     }
 
     @Override
@@ -362,12 +749,12 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
 
   @Override
   public Object[] toArray() {
-    int checkSize = size;
+    int expectedModCount = modCount;
     Object[] result = new Object[size];
     int i = 0;
     Node<E> node = head;
     while (node != null) {
-      checkForComodification(checkSize);
+      checkForComodification(expectedModCount);
       result[i++] = node.item;
       node = node.next;
     }
@@ -377,8 +764,8 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
   @Override
   @SuppressWarnings("unchecked")
   public <T> T[] toArray(T[] a) {
-    int checkSize = size;
-    if (a.length < randomAccessMap.size()) {
+    int expectedModCount = modCount;
+    if (a.length < size) {
       a =
           (T[])
               java.lang.reflect.Array.newInstance(
@@ -387,7 +774,7 @@ public class DoubleLinkedList<E> extends AbstractSequentialList<E> {
     int i = 0;
     Object[] result = a;
     for (Node<E> x = head; x != null; x = x.next) {
-      checkForComodification(checkSize);
+      checkForComodification(expectedModCount);
       result[i++] = x.item;
     }
 
@@ -0,0 +1,144 @@
+package linkedlist.partitioned;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * A {@link PartitionIndexFactory} that divides the index space in to contiguous partitions of equal width, for example 24 hours
+ * starting at 06:00.
+ * <br/>
+ * Every index maps on to a partition slot which is calculated arithmetically from the origin and width, {@link PartitionedLinkedList}
+ * uses the slot to route items to their partition in constant time regardless of the number of partitions.
+ * <br/>
+ * Partition bounds are inclusive so the max of each partition is one unit less than the min of the following partition.
+ *
+ * @param <I> the generic type of the object used to index each list item into a partition.
+ */
+public class FixedWidthPartitionIndexFactory<I extends Comparable<? super I>> implements PartitionIndexFactory<I> {
+
+  /**
+   * Converts between an index and a number of units from an origin.
+   *
+   * @param <I> the generic type of the index.
+   */
+  public interface Scale<I> {
+
+    /**
+     * Scales {@link LocalDateTime} indexes in nanoseconds.
+     */
+    Scale<LocalDateTime> NANOS = new Scale<>() {
+      @Override
+      public long units(LocalDateTime origin, LocalDateTime index) {
+        return ChronoUnit.NANOS.between(origin, index);
+      }
+
+      @Override
+      public LocalDateTime plus(LocalDateTime origin, long units) {
+        return origin.plusNanos(units);
+      }
+    };
+
+    /**
+     * Scales {@link Long} indexes in their own units.
+     */
+    Scale<Long> LONG = new Scale<>() {
+      @Override
+      public long units(Long origin, Long index) {
+        return index - origin;
+      }
+
+      @Override
+      public Long plus(Long origin, long units) {
+        return origin + units;
+      }
+    };
+
+    /**
+     * @return the number of whole units from origin to index, negative if index is before origin.
+     */
+    long units(I origin, I index);
+
+    /**
+     * @return the index that is the given number of units from origin.
+     */
+    I plus(I origin, long units);
+  }
+
+  private final I origin;
+  private final long width;
+  private final Scale<I> scale;
+  private final int maxPartitions;
+
+  public FixedWidthPartitionIndexFactory(I origin, long width, Scale<I> scale) {
+    this(origin, width, scale, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param origin the min of the partition in slot zero.
+   * @param width the width of every partition in units of the supplied scale, must be at least 2.
+   * @param scale converts indexes to and from units.
+   * @param maxPartitions the maximum number of partitions that may be created.
+   */
+  public FixedWidthPartitionIndexFactory(I origin, long width, Scale<I> scale, int maxPartitions) {
+    Objects.requireNonNull(origin);
+    Objects.requireNonNull(scale);
+    if (width < 2) {
+      throw new IllegalArgumentException("width MUST be at least 2");
+    }
+    this.origin = origin;
+    this.width = width;
+    this.scale = scale;
+    this.maxPartitions = maxPartitions;
+  }
+
+  /**
+   * Creates a factory of partitions that are {@code width} long starting at {@code origin}, scaled in nanoseconds.
+   */
+  public static FixedWidthPartitionIndexFactory<LocalDateTime> of(LocalDateTime origin, Duration width) {
+    return new FixedWidthPartitionIndexFactory<>(origin, width.toNanos(), Scale.NANOS);
+  }
+
+  /**
+   * Creates a factory of partitions that are {@code width} long starting at {@code origin}.
+   */
+  public static FixedWidthPartitionIndexFactory<Long> of(long origin, long width) {
+    return new FixedWidthPartitionIndexFactory<>(origin, width, Scale.LONG);
+  }
+
+  /**
+   * @return the slot of the partition containing the given index, slot zero starts at the origin.
+   */
+  public long slot(I index) {
+    return Math.floorDiv(scale.units(origin, index), width);
+  }
+
+  @Override
+  public PartitionIndex<I> newPartitionIndex(int partitionCount, I index) {
+    if (partitionCount >= maxPartitions) {
+      throw new IllegalStateException("Maximum number of partitions [" + maxPartitions + "] reached");
+    }
+    long min = slot(index) * width;
+    return new PartitionIndex<>(scale.plus(origin, min), scale.plus(origin, min + width - 1));
+  }
+
+  /**
+   * Factories are equal when they create the same partitions, the maximum number of partitions is not compared.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof FixedWidthPartitionIndexFactory<?> other)) {
+      return false;
+    }
+    return width == other.width && origin.equals(other.origin) && scale.equals(other.scale);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(origin, width, scale);
+  }
+}
@@ -0,0 +1,168 @@
+package linkedlist.partitioned;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import linkedlist.FrozenList;
+import linkedlist.ListOption;
+
+/**
+ * An immutable, read optimised copy of a {@link PartitionedLinkedList}, see {@link PartitionedLinkedList#freeze()}.
+ * <br/>
+ * The elements of every partition sit in index order in one contiguous {@link FrozenList}, partition by partition, and the
+ * partitions are described by the sorted mins of their indexes with the position of each partition's first element in a primitive
+ * array. Membership and position lookups use the frozen list's perfect hash, index and range queries a binary search of the
+ * elements, and every query is safe to run from several threads without synchronization.
+ *
+ * @param <I> the generic type of the index.
+ * @param <E> the generic type of the list elements.
+ */
+public final class FrozenPartitionedList<I extends Comparable<? super I>, E extends Indexed<I>> implements Iterable<E> {
+
+  private final PartitionIndexFactory<I> partitionIdxFactory;
+  private final ListOption[] options;
+  private final FrozenList<E> elements;
+  // the index of each partition and its min in ascending order
+  private final PartitionIndex<?>[] partitions;
+  private final Object[] partitionMins;
+  // the position of the first element of each partition, followed by the number of elements
+  private final int[] partitionStarts;
+
+  FrozenPartitionedList(PartitionIndexFactory<I> partitionIdxFactory, ListOption[] options, List<E> elements,
+      List<PartitionIndex<I>> partitions, int[] partitionStarts) {
+    this.partitionIdxFactory = partitionIdxFactory;
+    this.options = options;
+    this.elements = new FrozenList<>(elements, options);
+    this.partitions = partitions.toArray(new PartitionIndex<?>[0]);
+    this.partitionMins = partitions.stream().map(PartitionIndex::min).toArray();
+    this.partitionStarts = partitionStarts;
+  }
+
+  public int size() {
+    return elements.size();
+  }
+
+  public boolean isEmpty() {
+    return elements.isEmpty();
+  }
+
+  public boolean contains(Object o) {
+    return elements.contains(o);
+  }
+
+  /**
+   * @return the position of the element in index order, or -1 if it is not in the list.
+   */
+  public int indexOf(Object o) {
+    return elements.indexOf(o);
+  }
+
+  /**
+   * @return the element at the given position in index order.
+   */
+  public E get(int position) {
+    return elements.get(position);
+  }
+
+  /**
+   * @return every element in index order.
+   */
+  public List<E> elements() {
+    return elements;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return elements.iterator();
+  }
+
+  public Stream<E> stream() {
+    return elements.stream();
+  }
+
+  public int partitionCount() {
+    return partitionMins.length;
+  }
+
+  /**
+   * @return the elements of the partition holding the given index, empty if there is none.
+   */
+  @SuppressWarnings("unchecked")
+  public List<E> partition(I idx) {
+    int partition = Arrays.binarySearch(partitionMins, idx, (a, b) -> ((I) a).compareTo((I) b));
+    partition = partition >= 0 ? partition : -partition - 2;
+    if (partition < 0 || ((PartitionIndex<I>) partitions[partition]).compareTo(idx) != 0) {
+      return List.of();
+    }
+    return elements.subList(partitionStarts[partition], partitionStarts[partition + 1]);
+  }
+
+  /**
+   * @return the elements with an index from, inclusive, to, exclusive, in index order.
+   */
+  public List<E> range(I from, I to) {
+    int start = search(from, false);
+    return elements.subList(start, Math.max(start, search(to, false)));
+  }
+
+  /**
+   * @return the element with the greatest index less than or equal to the given index, or null if there is none.
+   */
+  public E floor(I idx) {
+    return at(search(idx, true) - 1);
+  }
+
+  /**
+   * @return the element with the greatest index strictly less than the given index, or null if there is none.
+   */
+  public E lower(I idx) {
+    return at(search(idx, false) - 1);
+  }
+
+  /**
+   * @return the element with the least index greater than or equal to the given index, or null if there is none.
+   */
+  public E ceiling(I idx) {
+    return at(search(idx, false));
+  }
+
+  /**
+   * @return the element with the least index strictly greater than the given index, or null if there is none.
+   */
+  public E higher(I idx) {
+    return at(search(idx, true));
+  }
+
+  /**
+   * @return a new mutable list holding the same elements, rebuilt without sorting as the elements are already in index order.
+   */
+  public PartitionedLinkedList<I, E> thaw() {
+    return PartitionedLinkedList.thaw(partitionIdxFactory, elements, options);
+  }
+
+  private E at(int position) {
+    return position >= 0 && position < elements.size() ? elements.get(position) : null;
+  }
+
+  /**
+   * @return the position of the first element with an index greater than, or greater than or equal to if not after, the given
+   *     index.
+   */
+  private int search(I idx, boolean after) {
+    Objects.requireNonNull(idx);
+    int low = 0;
+    int high = elements.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = elements.get(mid).index().compareTo(idx);
+      if (cmp < 0 || (after && cmp == 0)) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,415 @@
+package linkedlist.partitioned;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+import linkedlist.ElementListener;
+import linkedlist.ListOption;
+
+/**
+ * Finds elements that overlap a span of the index space and the gaps between elements, for example to validate that a channel's
+ * schedule has no overlapping or missing sequences without walking the whole list after every edit.
+ * <br/>
+ * Each element covers the half open interval from its index to its end, elements whose end is not after their index are not
+ * indexed. The intervals are held in an AVL tree ordered by start where every node records the greatest end in its subtree, so an
+ * overlap query visits O(log n + k) nodes for k results. The union of the intervals is kept as disjoint segments, intervals that
+ * touch share a segment, and the spaces between segments are kept ordered by length so gaps longer than a given length are found
+ * in O(log n + k). Removing an element recalculates only the span it covered, in O(log n) for each interval starting inside it, so
+ * edits to a gap free schedule that is one long segment stay cheap.
+ * <br/>
+ * An index is created by {@link PartitionedLinkedList#addIntervalIndex(Function, ToLongBiFunction)} and is kept up to date on every
+ * mutation of the list. The interval of an element is recorded when it is added so an element whose index or end has changed can
+ * still be removed.
+ *
+ * @param <I> the generic type of the index.
+ * @param <E> the generic type of the list elements.
+ */
+public class IntervalIndex<I extends Comparable<? super I>, E extends Indexed<I>> implements ElementListener<E> {
+
+  /**
+   * The space between the end of one segment of elements and the start of the next.
+   */
+  public record Gap<I>(I start, I end, long length) {
+  }
+
+  private final class Interval {
+    final E element;
+    final I start;
+    final I end;
+    // orders intervals with equal starts
+    final long sequence;
+    I maxEnd;
+    int height = 1;
+    Interval left;
+    Interval right;
+
+    Interval(E element, I start, I end, long sequence) {
+      this.element = element;
+      this.start = start;
+      this.end = end;
+      this.sequence = sequence;
+      this.maxEnd = end;
+    }
+  }
+
+  private final Function<? super E, ? extends I> endExtractor;
+  private final ToLongBiFunction<? super I, ? super I> length;
+  private final Map<E, Interval> intervals;
+  private Interval root;
+  private long sequence;
+  // the union of the intervals, the start of each segment mapped to its end
+  private final NavigableMap<I, I> segments = new TreeMap<>();
+  // the spaces between consecutive segments ordered by length then start
+  private final NavigableSet<Gap<I>> gaps = new TreeSet<>(
+      Comparator.<Gap<I>>comparingLong(Gap::length).thenComparing(Gap::start, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+  /**
+   * @param endExtractor derives the exclusive end of each element.
+   * @param length measures the distance from one index to a later one.
+   * @param options the {@link ListOption}s of the indexed list, {@link ListOption#IDENTITY_KEYS} holds elements by identity.
+   */
+  public IntervalIndex(Function<? super E, ? extends I> endExtractor, ToLongBiFunction<? super I, ? super I> length,
+      ListOption... options) {
+    Objects.requireNonNull(endExtractor);
+    Objects.requireNonNull(length);
+    this.endExtractor = endExtractor;
+    this.length = length;
+    this.intervals = Arrays.asList(options).contains(ListOption.IDENTITY_KEYS) ? new IdentityHashMap<>() : new HashMap<>();
+  }
+
+  /**
+   * @return the elements whose interval overlaps from, inclusive, to, exclusive, in index order.
+   */
+  public List<E> overlapping(I from, I to) {
+    List<Interval> result = new ArrayList<>();
+    if (from.compareTo(to) < 0) {
+      collect(root, from, to, null, result);
+    }
+    return elements(result);
+  }
+
+  /**
+   * @return the other elements whose interval overlaps that of the given element, in index order.
+   */
+  public List<E> overlapping(E element) {
+    Interval interval = intervals.get(element);
+    List<Interval> result = new ArrayList<>();
+    if (interval != null) {
+      collect(root, interval.start, interval.end, interval, result);
+    }
+    return elements(result);
+  }
+
+  /**
+   * @return the gaps between elements that are longer than the given length, in index order.
+   */
+  public List<Gap<I>> gapsLongerThan(long minLength) {
+    if (minLength == Long.MAX_VALUE) {
+      return new ArrayList<>();
+    }
+    List<Gap<I>> result = new ArrayList<>(gaps.tailSet(new Gap<>(null, null, minLength + 1), true));
+    result.sort(Comparator.comparing(Gap::start));
+    return result;
+  }
+
+  /**
+   * @return the number of indexed elements.
+   */
+  public int size() {
+    return intervals.size();
+  }
+
+  @Override
+  public void added(E element) {
+    I start = element.index();
+    I end = endExtractor.apply(element);
+    if (end == null || end.compareTo(start) <= 0 || intervals.containsKey(element)) {
+      return;
+    }
+    Interval interval = new Interval(element, start, end, sequence++);
+    intervals.put(element, interval);
+    root = insert(root, interval);
+    cover(start, end);
+  }
+
+  @Override
+  public void removed(E element) {
+    Interval interval = intervals.remove(element);
+    if (interval == null) {
+      return;
+    }
+    root = delete(root, interval);
+    uncover(interval.start, interval.end);
+  }
+
+  @Override
+  public void replaced(E was, E now) {
+    removed(was);
+    added(now);
+  }
+
+  private List<E> elements(List<Interval> found) {
+    List<E> result = new ArrayList<>(found.size());
+    found.forEach(interval -> result.add(interval.element));
+    return result;
+  }
+
+  private void collect(Interval node, I from, I to, Interval exclude, List<Interval> result) {
+    if (node == null || node.maxEnd.compareTo(from) <= 0) {
+      return;
+    }
+    collect(node.left, from, to, exclude, result);
+    if (node.start.compareTo(to) < 0) {
+      if (node.end.compareTo(from) > 0 && node != exclude) {
+        result.add(node);
+      }
+      collect(node.right, from, to, exclude, result);
+    }
+  }
+
+  /**
+   * Merges an interval in to the segments it overlaps or touches.
+   */
+  private void cover(I start, I end) {
+    Map.Entry<I, I> floor = segments.floorEntry(start);
+    I mergedStart = floor != null && floor.getValue().compareTo(start) >= 0 ? floor.getKey() : start;
+    I mergedEnd = end;
+    List<I> merged = new ArrayList<>();
+    for (Map.Entry<I, I> segment : segments.tailMap(mergedStart, true).entrySet()) {
+      if (segment.getKey().compareTo(mergedEnd) > 0) {
+        break;
+      }
+      merged.add(segment.getKey());
+      if (segment.getValue().compareTo(mergedEnd) > 0) {
+        mergedEnd = segment.getValue();
+      }
+    }
+    replaceSegments(mergedStart, merged, List.of(Map.entry(mergedStart, mergedEnd)));
+  }
+
+  /**
+   * Recalculates the segment that contained a removed interval, the segment may shrink, split or disappear.
+   * <br/>
+   * Only the span of the removed interval can lose coverage. The part of the segment before it is still covered by the intervals
+   * that start before it, and once the span has been crossed the rest of the segment is covered as before. So the span is walked
+   * from the greatest end of the intervals starting at or before each point, each step is O(log n) and a step is only taken for an
+   * interval starting inside the span, rather than collecting every interval of the segment.
+   */
+  private void uncover(I start, I end) {
+    Map.Entry<I, I> segment = segments.floorEntry(start);
+    I segmentEnd = segment.getValue();
+    List<Map.Entry<I, I>> split = new ArrayList<>();
+    I pieceStart = segment.getKey().compareTo(start) < 0 ? segment.getKey() : nextStart(start, true);
+    // the part of the segment before the removed interval is covered up to the end of the intervals starting before it
+    I reach = pieceStart != null && pieceStart.compareTo(start) < 0 ? reach(start) : pieceStart;
+    while (pieceStart != null && pieceStart.compareTo(segmentEnd) <= 0) {
+      I further = reach(reach);
+      while (reach.compareTo(end) < 0 && further != null && further.compareTo(reach) > 0) {
+        reach = further;
+        further = reach(reach);
+      }
+      if (reach.compareTo(end) >= 0) {
+        split.add(Map.entry(pieceStart, segmentEnd));
+        break;
+      }
+      split.add(Map.entry(pieceStart, reach));
+      pieceStart = nextStart(reach, false);
+      reach = pieceStart;
+    }
+    replaceSegments(segment.getKey(), List.of(segment.getKey()), split);
+  }
+
+  /**
+   * @return the greatest end of the intervals starting at or before the index, null if there are none.
+   */
+  private I reach(I idx) {
+    I reach = null;
+    Interval node = root;
+    while (node != null) {
+      if (node.start.compareTo(idx) <= 0) {
+        reach = max(reach, node.end);
+        if (node.left != null) {
+          reach = max(reach, node.left.maxEnd);
+        }
+        node = node.right;
+      } else {
+        node = node.left;
+      }
+    }
+    return reach;
+  }
+
+  /**
+   * @return the least start after the index, or at it when inclusive, null if there is none.
+   */
+  private I nextStart(I idx, boolean inclusive) {
+    I next = null;
+    Interval node = root;
+    while (node != null) {
+      int cmp = node.start.compareTo(idx);
+      if (cmp > 0 || (inclusive && cmp == 0)) {
+        next = node.start;
+        node = node.left;
+      } else {
+        node = node.right;
+      }
+    }
+    return next;
+  }
+
+  private I max(I a, I b) {
+    return a == null || b.compareTo(a) > 0 ? b : a;
+  }
+
+  /**
+   * Replaces segments keeping the gaps either side of them up to date.
+   *
+   * @param from the least start of the removed and added segments.
+   */
+  private void replaceSegments(I from, List<I> removed, List<Map.Entry<I, I>> added) {
+    Map.Entry<I, I> lower = segments.lowerEntry(from);
+    if (lower != null) {
+      removeGapAfter(lower.getKey());
+    }
+    removed.forEach(this::removeGapAfter);
+    removed.forEach(segments::remove);
+    added.forEach(segment -> segments.put(segment.getKey(), segment.getValue()));
+    if (lower != null) {
+      addGapAfter(lower.getKey());
+    }
+    added.forEach(segment -> addGapAfter(segment.getKey()));
+  }
+
+  private void removeGapAfter(I segmentStart) {
+    Map.Entry<I, I> next = segments.higherEntry(segmentStart);
+    if (next != null) {
+      gaps.remove(gap(segments.get(segmentStart), next.getKey()));
+    }
+  }
+
+  private void addGapAfter(I segmentStart) {
+    Map.Entry<I, I> next = segments.higherEntry(segmentStart);
+    if (next != null) {
+      gaps.add(gap(segments.get(segmentStart), next.getKey()));
+    }
+  }
+
+  private Gap<I> gap(I start, I end) {
+    return new Gap<>(start, end, length.applyAsLong(start, end));
+  }
+
+  private int compare(Interval a, Interval b) {
+    int cmp = a.start.compareTo(b.start);
+    return cmp != 0 ? cmp : Long.compare(a.sequence, b.sequence);
+  }
+
+  private Interval insert(Interval node, Interval interval) {
+    if (node == null) {
+      return interval;
+    }
+    if (compare(interval, node) < 0) {
+      node.left = insert(node.left, interval);
+    } else {
+      node.right = insert(node.right, interval);
+    }
+    return balance(node);
+  }
+
+  private Interval delete(Interval node, Interval interval) {
+    if (node == null) {
+      return null;
+    }
+    int cmp = compare(interval, node);
+    if (cmp < 0) {
+      node.left = delete(node.left, interval);
+    } else if (cmp > 0) {
+      node.right = delete(node.right, interval);
+    } else {
+      if (node.left == null) {
+        return node.right;
+      }
+      if (node.right == null) {
+        return node.left;
+      }
+      Interval successor = node.right;
+      while (successor.left != null) {
+        successor = successor.left;
+      }
+      successor.right = deleteMin(node.right);
+      successor.left = node.left;
+      node = successor;
+    }
+    return balance(node);
+  }
+
+  private Interval deleteMin(Interval node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    node.left = deleteMin(node.left);
+    return balance(node);
+  }
+
+  private Interval balance(Interval node) {
+    update(node);
+    int factor = height(node.left) - height(node.right);
+    if (factor > 1) {
+      if (height(node.left.left) < height(node.left.right)) {
+        node.left = rotateLeft(node.left);
+      }
+      return rotateRight(node);
+    }
+    if (factor < -1) {
+      if (height(node.right.right) < height(node.right.left)) {
+        node.right = rotateRight(node.right);
+      }
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  private Interval rotateRight(Interval node) {
+    Interval left = node.left;
+    node.left = left.right;
+    left.right = node;
+    update(node);
+    update(left);
+    return left;
+  }
+
+  private Interval rotateLeft(Interval node) {
+    Interval right = node.right;
+    node.right = right.left;
+    right.left = node;
+    update(node);
+    update(right);
+    return right;
+  }
+
+  private void update(Interval node) {
+    node.height = 1 + Math.max(height(node.left), height(node.right));
+    I maxEnd = node.end;
+    if (node.left != null && node.left.maxEnd.compareTo(maxEnd) > 0) {
+      maxEnd = node.left.maxEnd;
+    }
+    if (node.right != null && node.right.maxEnd.compareTo(maxEnd) > 0) {
+      maxEnd = node.right.maxEnd;
+    }
+    node.maxEnd = maxEnd;
+  }
+
+  private int height(Interval node) {
+    return node == null ? 0 : node.height;
+  }
+}
@@ -0,0 +1,172 @@
+package linkedlist.partitioned;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import linkedlist.ElementCodec;
+import linkedlist.RandomAccessDoubleLinkedList;
+import linkedlist.partitioned.DoubleLinkedList.Node;
+
+/**
+ * The segment files and residency of the partitions of a tiered {@link PartitionedLinkedList}, see {@link Tiering}.
+ * <br/>
+ * The tier writes spilled elements to segment files and reads them back, orders the resident partitions by access and picks the
+ * partition to spill next. The list decides when partitions are spilled and faulted in.
+ *
+ * @param <P> the generic type of the partitions.
+ * @param <E> the generic type of the list elements.
+ */
+final class PartitionTier<P, E> {
+
+  private final Tiering<E> tiering;
+  // resident partitions, the most recently accessed at the head
+  private final RandomAccessDoubleLinkedList<P> residency = new RandomAccessDoubleLinkedList<>();
+  private int spilledElements;
+  private long segmentCount;
+
+  PartitionTier(Tiering<E> tiering) {
+    this.tiering = Objects.requireNonNull(tiering);
+  }
+
+  /**
+   * @return the number of elements held in segment files.
+   */
+  int spilledElements() {
+    return spilledElements;
+  }
+
+  int readAhead() {
+    return tiering.readAhead();
+  }
+
+  /**
+   * @return true if more elements are on the heap than the configured maximum.
+   */
+  boolean exceeded(int residentElements) {
+    return residentElements > tiering.maxResidentElements();
+  }
+
+  /**
+   * Records a partition that has been created or faulted in as the most recently accessed.
+   */
+  void resident(P partition) {
+    residency.addFirst(partition);
+  }
+
+  void accessed(P partition) {
+    residency.moveToHead(partition);
+  }
+
+  /**
+   * Forgets a partition that has been spilled or reclaimed.
+   */
+  void removed(P partition) {
+    residency.remove(partition);
+  }
+
+  /**
+   * @param partitions every partition in index order.
+   * @param spilled tells whether a partition is spilled.
+   * @param pinned a partition that must stay on the heap, may be null.
+   * @return the partition to spill next, or null if no partition other than the pinned partition is resident.
+   */
+  P victim(Iterable<P> partitions, Predicate<P> spilled, P pinned) {
+    P victim = null;
+    if (tiering.policy() == Tiering.Policy.LRU) {
+      victim = residency.peekTail();
+    } else {
+      for (P partition : partitions) {
+        if (!spilled.test(partition) && partition != pinned) {
+          victim = partition;
+          break;
+        }
+      }
+    }
+    return victim != pinned ? victim : null;
+  }
+
+  /**
+   * Writes a chain of elements to a new segment file.
+   *
+   * @return the segment file.
+   * @throws IllegalStateException if the first element does not decode to an equal element.
+   */
+  Path write(Node<E> head, int size) {
+    ElementCodec<E> codec = tiering.codec();
+    checkRoundTrip(codec, head);
+    long bytes = Integer.BYTES;
+    for (Node<E> node = head; node != null; node = node.next) {
+      bytes += codec.size(node.item);
+    }
+    Path file = tiering.directory().resolve("partition-" + segmentCount++ + ".seg");
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, bytes);
+      buffer.putInt(size);
+      for (Node<E> node = head; node != null; node = node.next) {
+        codec.encode(node.item, buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    spilledElements += size;
+    return file;
+  }
+
+  /**
+   * Decodes the elements of a segment file in order, then deletes the file.
+   */
+  void read(Path segment, Consumer<? super E> elements) {
+    ElementCodec<E> codec = tiering.codec();
+    int size;
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      size = buffer.getInt();
+      for (int i = size; i > 0; i--) {
+        elements.accept(codec.decode(buffer));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    delete(segment, size);
+  }
+
+  /**
+   * Deletes a segment file holding size elements without reading it.
+   */
+  void delete(Path segment, int size) {
+    try {
+      Files.deleteIfExists(segment);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    spilledElements -= size;
+  }
+
+  /**
+   * Checks that the first element of a partition about to be spilled decodes to an equal element with the same hash code, so
+   * that an element with identity equality fails before it leaves the heap rather than being lost to the random access map once
+   * it is faulted back in as a new instance.
+   */
+  private static <E> void checkRoundTrip(ElementCodec<E> codec, Node<E> node) {
+    if (node == null) {
+      return;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(codec.size(node.item));
+    codec.encode(node.item, buffer);
+    E decoded = codec.decode(buffer.flip());
+    if (!node.item.equals(decoded) || node.item.hashCode() != decoded.hashCode()) {
+      throw new IllegalStateException("[" + node.item + "] does not equal its decoded copy [" + decoded
+          + "], tiered elements MUST have value based equals and hashCode");
+    }
+  }
+}
@@ -1,16 +1,42 @@
 package linkedlist.partitioned;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.ListIterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongBiFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import linkedlist.ElementCodec;
+import linkedlist.ElementListener;
+import linkedlist.ListOption;
+import linkedlist.RandomAccessDoubleLinkedList;
+import linkedlist.SecondaryIndex;
 import linkedlist.partitioned.DoubleLinkedList.Node;
 
 /**
@@ -62,64 +88,717 @@ import linkedlist.partitioned.DoubleLinkedList.Node;
  */
 public class PartitionedLinkedList<I extends Comparable<? super I>, E extends Indexed<I>> {
 
-  private class Partition {
+  private class Partition implements ElementListener<E> {
     final PartitionIndex<I> index;
-    final DoubleLinkedList<E> list = new DoubleLinkedList<>(randomAccessMap);
+    final DoubleLinkedList<E> list;
+    final long slot;
+
+    // the partition's elements sorted by index followed by spare capacity, patched on each link and unlink the partition is told
+    // about and sorted again when the list has been modified in any other way
+    private E[] sorted;
+    private int sortedCount;
+    private int sortedModCount;
+    // the key of each sorted element when the list has a key column
+    private long[] keys;
+    // summaries of the registered aggregators in registration order, UNKNOWN when a summary must be recalculated
+    private Object[] summaries = new Object[0];
+    // the segment file holding the partition's elements while it is spilled, null while the elements are on the heap
+    private Path segment;
+    private int spilledSize;
+    // set while the partition is waiting to be checked for emptiness, or queued to be reclaimed once empty
+    private boolean reclaimCandidate;
+    private boolean queuedEmpty;
 
     Partition(PartitionIndex<I> index) {
       this.index = index;
+      // in compact mode an element belongs to the partition whose index contains the element's index
+      this.list = options.contains(ListOption.COMPACT_NODES)
+          ? new DoubleLinkedList<>(randomAccessMap, e -> index.compareTo(e.index()) == 0)
+          : new DoubleLinkedList<>(randomAccessMap);
+      this.slot = fixedWidthFactory != null ? fixedWidthFactory.slot(index.min()) : 0;
+      if (deferred) {
+        list.deferIndex();
+      }
+      listen();
+      if (tier != null) {
+        tier.resident(this);
+      }
+    }
+
+    void listen() {
+      list.listener(!aggregators.isEmpty() || !listeners.isEmpty() || retainedEmptyPartitions >= 0 || sorted != null ? this : null);
+    }
+
+    boolean spilled() {
+      return segment != null;
+    }
+
+    int size() {
+      return spilled() ? spilledSize : list.size();
+    }
+
+    boolean empty() {
+      return size() == 0;
+    }
+
+    /**
+     * Writes the partition's elements to a segment file and drops its nodes and random access map entries.
+     */
+    void spill() {
+      segment = tier.write(list.head(), list.size());
+      spilledSize = list.size();
+      for (Node<E> node = list.head(); node != null; node = node.next) {
+        randomAccessMap.remove(node.item);
+      }
+      list.adopt(null, null, 0);
+      sorted = null;
+      tier.removed(this);
+    }
+
+    /**
+     * Reads the partition's elements back from its segment file, listeners are not notified as the elements never left the list.
+     */
+    void faultIn() {
+      list.listener(null);
+      try {
+        tier.read(segment, list::add);
+      } finally {
+        listen();
+      }
+      segment = null;
+      spilledSize = 0;
+      tier.resident(this);
+    }
+
+    /**
+     * Deletes the segment file of a spilled partition whose elements are no longer wanted.
+     */
+    void dropSegment() {
+      tier.delete(segment, spilledSize);
+      segment = null;
+      spilledSize = 0;
+    }
+
+    /**
+     * @return the summary of every element in the partition, recalculated if an element has been removed since it was last known.
+     */
+    @SuppressWarnings("unchecked")
+    <A> A summary(int aggregator) {
+      if (summaries.length <= aggregator) {
+        int length = summaries.length;
+        summaries = Arrays.copyOf(summaries, aggregators.size());
+        Arrays.fill(summaries, length, summaries.length, UNKNOWN);
+      }
+      if (summaries[aggregator] == UNKNOWN) {
+        resident(this);
+        Aggregator<? super E, A> agg = (Aggregator<? super E, A>) aggregators.get(aggregator);
+        A summary = agg.identity();
+        for (Node<E> node = list.head(); node != null; node = node.next) {
+          summary = agg.accumulate(summary, node.item);
+        }
+        summaries[aggregator] = summary;
+      }
+      return (A) summaries[aggregator];
+    }
+
+    void invalidateSummaries() {
+      Arrays.fill(summaries, UNKNOWN);
+    }
+
+    @Override
+    public void added(E element) {
+      sortedAdded(element);
+      for (ElementListener<? super E> listener : listeners) {
+        listener.added(element);
+      }
+      summaryAdded(element);
+      if (queuedEmpty) {
+        emptyPartitions.remove(this);
+        queuedEmpty = false;
+      }
+    }
+
+    @Override
+    public void removed(E element) {
+      sortedRemoved(element);
+      for (ElementListener<? super E> listener : listeners) {
+        listener.removed(element);
+      }
+      summaryRemoved(element);
+      // the list may be part way through unlinking so emptiness is checked later, see reclaimEmptyPartitions()
+      markReclaimCandidate();
+    }
+
+    void markReclaimCandidate() {
+      if (retainedEmptyPartitions >= 0 && !reclaimCandidate) {
+        reclaimCandidate = true;
+        reclaimCandidates.add(this);
+      }
+    }
+
+    /**
+     * Updates the partition's own summaries, which are only touched by the thread working on the partition.
+     */
+    @SuppressWarnings("unchecked")
+    void summaryAdded(E element) {
+      for (int i = 0; i < summaries.length; i++) {
+        if (summaries[i] != UNKNOWN) {
+          Aggregator<? super E, Object> agg = (Aggregator<? super E, Object>) aggregators.get(i);
+          summaries[i] = agg.accumulate(summaries[i], element);
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    void summaryRemoved(E element) {
+      for (int i = 0; i < summaries.length; i++) {
+        if (summaries[i] != UNKNOWN) {
+          Aggregator<? super E, Object> agg = (Aggregator<? super E, Object>) aggregators.get(i);
+          summaries[i] = agg.invertible() ? agg.remove(summaries[i], element) : UNKNOWN;
+        }
+      }
+    }
+
+    @Override
+    public void replaced(E was, E now) {
+      removed(was);
+      added(now);
+    }
+
+    /**
+     * @return the partition's elements sorted by index, only the first {@code sortedCount} are in use. Once sorted the elements are
+     *     patched as elements are linked and unlinked, they are only sorted again after a change the partition was not told about.
+     */
+    @SuppressWarnings("unchecked")
+    E[] sorted() {
+      resident(this);
+      if (sorted == null || sortedModCount != list.modCount()) {
+        // a stable sort that is linear when the list is already in index order, which is the usual case
+        E[] items = (E[]) list.toArray(new Indexed<?>[list.size()]);
+        Arrays.sort(items, Comparator.comparing(Indexed::index));
+        sorted = items;
+        sortedCount = items.length;
+        sortedModCount = list.modCount();
+        keys = keyColumn != null ? keys(items) : null;
+        list.listener(this);
+      }
+      return sorted;
+    }
+
+    private long[] keys(E[] items) {
+      long[] column = new long[items.length];
+      for (int i = 0; i < items.length; i++) {
+        column[i] = keyColumn.applyAsLong(items[i].index());
+      }
+      return column;
+    }
+
+    /**
+     * @return true if the sorted elements were current before the change being notified, which is then the only change to patch.
+     */
+    private boolean patchable() {
+      if (sorted == null) {
+        return false;
+      }
+      if (sortedModCount != list.modCount() - 1) {
+        // more than one change, for example a bulk removal notifies before it counts the change, the elements are sorted again
+        sorted = null;
+        keys = null;
+        return false;
+      }
+      sortedModCount = list.modCount();
+      return true;
+    }
+
+    /**
+     * Inserts a linked element in to the sorted elements after those with an equal index, or before them when it was linked at the
+     * head of the list. Every path that links an element within a partition places it after the elements with an equal index so
+     * the sorted elements stay in list order.
+     */
+    private void sortedAdded(E element) {
+      if (!patchable()) {
+        return;
+      }
+      int position = search(element.index(), list.head().item != element);
+      if (sortedCount == sorted.length) {
+        int capacity = Math.max(8, sortedCount + (sortedCount >> 1));
+        sorted = Arrays.copyOf(sorted, capacity);
+        keys = keys != null ? Arrays.copyOf(keys, capacity) : null;
+      }
+      System.arraycopy(sorted, position, sorted, position + 1, sortedCount - position);
+      sorted[position] = element;
+      if (keys != null) {
+        System.arraycopy(keys, position, keys, position + 1, sortedCount - position);
+        keys[position] = keyColumn.applyAsLong(element.index());
+      }
+      sortedCount ++;
+    }
+
+    private void sortedRemoved(E element) {
+      if (!patchable()) {
+        return;
+      }
+      int position = sortedPosition(element);
+      if (position < 0) {
+        sorted = null;
+        keys = null;
+        return;
+      }
+      sortedCount --;
+      System.arraycopy(sorted, position + 1, sorted, position, sortedCount - position);
+      sorted[sortedCount] = null;
+      if (keys != null) {
+        System.arraycopy(keys, position + 1, keys, position, sortedCount - position);
+      }
+    }
+
+    /**
+     * @return the position of the element in the sorted elements, or -1. The element's index may have been changed before it was
+     *     unlinked, see {@link #reindex(Indexed, Comparable)}, in which case every sorted element is compared by identity.
+     */
+    private int sortedPosition(E element) {
+      I idx = element.index();
+      for (int i = search(idx, false); i < sortedCount && sorted[i].index().compareTo(idx) <= 0; i++) {
+        if (sorted[i] == element) {
+          return i;
+        }
+      }
+      for (int i = 0; i < sortedCount; i++) {
+        if (sorted[i] == element) {
+          return i;
+        }
+      }
+      return -1;
     }
+
+    private int search(I idx, boolean after) {
+      return keys != null
+          ? PartitionedLinkedList.search(keys, sortedCount, keyColumn.applyAsLong(idx), after)
+          : PartitionedLinkedList.search(sorted, sortedCount, idx, after);
+    }
+
+    /**
+     * @return the position of the first sorted element with an index greater than, or greater than or equal to if not after, the
+     *     given index, searching the key column when the list has one.
+     */
+    int position(I idx, boolean after) {
+      sorted();
+      return search(idx, after);
+    }
+
+    /**
+     * @return the greatest element with an index less than, or equal to if inclusive, the given index.
+     */
+    E floor(I idx, boolean inclusive) {
+      int position = position(idx, inclusive) - 1;
+      return position >= 0 ? sorted[position] : null;
+    }
+
+    /**
+     * @return the least element with an index greater than, or equal to if inclusive, the given index.
+     */
+    E ceiling(I idx, boolean inclusive) {
+      int position = position(idx, !inclusive);
+      return position < sortedCount ? sorted[position] : null;
+    }
+  }
+
+  // marks a partition summary that must be recalculated, summaries themselves may be null such as the min of no elements
+  private static final Object UNKNOWN = new Object();
+
+  /**
+   * @return the position of the first sorted element with an index greater than, or greater than or equal to if not after, the
+   *     given index.
+   */
+  private static <I extends Comparable<? super I>> int search(Indexed<I>[] sorted, int length, I idx, boolean after) {
+    int low = 0;
+    int high = length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = sorted[mid].index().compareTo(idx);
+      if (cmp < 0 || (after && cmp == 0)) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  private static int search(long[] keys, int length, long key, boolean after) {
+    int low = 0;
+    int high = length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (keys[mid] < key || (after && keys[mid] == key)) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
   }
 
-  private final LinkedList<Partition> partitionList = new LinkedList<>();
-  private final Map<E, Node<E>> randomAccessMap = new HashMap<>();
+  /**
+   * Number of elements below which a bulk load links nodes on the calling thread rather than forking.
+   */
+  private static final int BULK_LINK_THRESHOLD = 1 << 14;
+
+  /**
+   * Number of elements above which the per element work of a parallel operation on a partition is split in to chunks.
+   */
+  private static final int PARALLEL_CHUNK = 1 << 13;
+
+  /**
+   * Initial and maximum lengths of the slot ring used to route items when partitions have a fixed width.
+   */
+  private static final int INITIAL_SLOT_RING = 64;
+  private static final int MAX_SLOT_RING = 1 << 16;
+
+  // partitions keyed by the min of their index
+  private final NavigableMap<I, Partition> partitionDirectory = new TreeMap<>();
+  // counts partitions added to and removed from the directory
+  private int directoryModCount;
+  private Map<E, Node<E>> randomAccessMap;
+  // set while the random access map is not maintained, see ListOption.LAZY_INDEX
+  private boolean deferred;
   private final PartitionIndexFactory<I> partitionIdxFactory;
+  private final EnumSet<ListOption> options;
+  // directly addressed by partition slot modulo its length, only used with a fixed width factory
+  private final FixedWidthPartitionIndexFactory<I> fixedWidthFactory;
+  private Partition[] slotRing;
+  // set when a partition could not be placed in the ring so a ring miss must fall back to searching the partition directory
+  private boolean slotRingOverflow;
+  private final List<Aggregator<? super E, ?>> aggregators = new ArrayList<>();
+  // maps each index to a long in the same order, null unless partitions keep a key column
+  private ToLongFunction<? super I> keyColumn;
+  // secondary and interval indexes
+  private final List<ElementListener<? super E>> listeners = new ArrayList<>(0);
+  // null unless cold partitions are spilled to segment files
+  private final PartitionTier<Partition, E> tier;
+  // the number of empty partitions kept, most recently emptied first, or -1 when empty partitions are not reclaimed
+  private int retainedEmptyPartitions = -1;
+  // partitions that have had elements removed since empty partitions were last reclaimed
+  private final List<Partition> reclaimCandidates = new ArrayList<>(0);
+  // empty partitions that are kept, the most recently emptied at the head
+  private final RandomAccessDoubleLinkedList<Partition> emptyPartitions = new RandomAccessDoubleLinkedList<>();
+  private long reclaimedPartitions;
+
+  /**
+   * @param partitionIdxFactory the factory used to create each partition.
+   * @param options the {@link ListOption}s to apply, {@link ListOption#COMPACT_NODES} derives the partition of each node from the
+   *     index of its element rather than storing it in the node, {@link ListOption#IDENTITY_KEYS} finds elements by identity,
+   *     {@link ListOption#LAZY_INDEX} defers the random access map until the first keyed operation.
+   */
+  public PartitionedLinkedList(PartitionIndexFactory<I> partitionIdxFactory, ListOption... options) {
+    this(partitionIdxFactory, newRandomAccessMap(0, options), null, options);
+  }
 
-  public PartitionedLinkedList(PartitionIndexFactory<I> partitionIdxFactory) {
+  /**
+   * Creates a tiered list that spills cold partitions to memory mapped segment files once more than
+   * {@link Tiering#maxResidentElements()} elements are on the heap.
+   * <br/>
+   * A spilled partition's nodes and random access map entries are dropped from the heap and only its aggregate summaries are kept,
+   * so the list holds no more than the configured number of elements. Secondary and interval indexes would hold every element, so
+   * they can not be added to a tiered list, and an aggregator whose summary is itself an element keeps that element on the heap.
+   * The partition is faulted back in, together with {@link Tiering#readAhead()} following partitions, when it is accessed through
+   * {@link #linkedList(Indexed)}, {@link #contains(Object)}, iteration, navigation or any mutation. Lists returned by
+   * {@link #linkedList(Indexed)} should not be held across other operations as their partition may be spilled, leaving them empty.
+   * <br/>
+   * Faulted in elements are new instances decoded by the {@link ElementCodec}, the list finds them through
+   * {@code equals} and {@code hashCode}, so elements MUST have value based equality, for example a record. Each spill checks that
+   * the partition's first element decodes to an equal element and throws {@link IllegalStateException} if it does not.
+   *
+   * @param partitionIdxFactory the factory used to create each partition.
+   * @param tiering the tiering configuration.
+   * @param options the {@link ListOption}s to apply, {@link ListOption#IDENTITY_KEYS} is not supported as faulted in elements
+   *     are new instances and {@link ListOption#LAZY_INDEX} is not supported as spilling is driven by the random access map.
+   */
+  public PartitionedLinkedList(PartitionIndexFactory<I> partitionIdxFactory, Tiering<E> tiering, ListOption... options) {
+    this(partitionIdxFactory, newRandomAccessMap(0, options), Objects.requireNonNull(tiering), options);
+    if (this.options.contains(ListOption.IDENTITY_KEYS) || this.options.contains(ListOption.LAZY_INDEX)) {
+      throw new IllegalArgumentException("IDENTITY_KEYS and LAZY_INDEX can not be used with tiering");
+    }
+  }
+
+  private PartitionedLinkedList(PartitionIndexFactory<I> partitionIdxFactory, Map<E, Node<E>> randomAccessMap, Tiering<E> tiering,
+      ListOption... options) {
     Objects.requireNonNull(partitionIdxFactory);
     this.partitionIdxFactory = partitionIdxFactory;
+    this.randomAccessMap = randomAccessMap;
+    this.tier = tiering != null ? new PartitionTier<>(tiering) : null;
+    this.options = EnumSet.noneOf(ListOption.class);
+    this.options.addAll(Arrays.asList(options));
+    this.deferred = this.options.contains(ListOption.LAZY_INDEX);
+    if (partitionIdxFactory instanceof FixedWidthPartitionIndexFactory<I> fixedWidth) {
+      this.fixedWidthFactory = fixedWidth;
+      this.slotRing = newSlotRing(INITIAL_SLOT_RING);
+    } else {
+      this.fixedWidthFactory = null;
+    }
+  }
+
+  /**
+   * Builds a new list from unsorted input, see {@link #bulkLoad(PartitionIndexFactory, Spliterator, ListOption...)}.
+   */
+  public static <I extends Comparable<? super I>, E extends Indexed<I>> PartitionedLinkedList<I, E> bulkLoad(
+      PartitionIndexFactory<I> partitionIdxFactory, Collection<? extends E> items, ListOption... options) {
+    return bulkLoad(partitionIdxFactory, items.spliterator(), options);
+  }
+
+  /**
+   * Builds a new list from unsorted input using the common {@link ForkJoinPool}.
+   * <br/>
+   * The input is sorted in parallel by {@code Indexed.index()}, the sort is stable so items with equal indexes keep their
+   * encounter order. Partition boundaries are then located with a binary search per partition, the nodes of every partition
+   * are created and linked by fork-join tasks and finally the random access map, pre-sized for the input, is populated.
+   *
+   * @param partitionIdxFactory the factory used to create each partition.
+   * @param items the items to load.
+   * @param options the {@link ListOption}s of the new list.
+   * @return a new list containing the items in index order.
+   * @throws IllegalStateException if the factory creates a partition that does not contain the index it was created for.
+   */
+  @SuppressWarnings("unchecked")
+  public static <I extends Comparable<? super I>, E extends Indexed<I>> PartitionedLinkedList<I, E> bulkLoad(
+      PartitionIndexFactory<I> partitionIdxFactory, Spliterator<? extends E> items, ListOption... options) {
+    Objects.requireNonNull(items);
+    Indexed<I>[] sorted = StreamSupport.stream(items, true).toArray(Indexed[]::new);
+    Arrays.parallelSort(sorted, Comparator.comparing(Indexed::index));
+
+    PartitionedLinkedList<I, E> result =
+        new PartitionedLinkedList<>(partitionIdxFactory, newRandomAccessMap(sorted.length, options), null, options);
+    result.load((E[]) sorted);
+    return result;
+  }
+
+  /**
+   * Builds a new list from elements already in index order, see {@link FrozenPartitionedList#thaw()}.
+   */
+  @SuppressWarnings("unchecked")
+  static <I extends Comparable<? super I>, E extends Indexed<I>> PartitionedLinkedList<I, E> thaw(
+      PartitionIndexFactory<I> partitionIdxFactory, List<E> sorted, ListOption... options) {
+    PartitionedLinkedList<I, E> result =
+        new PartitionedLinkedList<>(partitionIdxFactory, newRandomAccessMap(sorted.size(), options), null, options);
+    result.load((E[]) sorted.toArray(new Indexed<?>[sorted.size()]));
+    return result;
+  }
+
+  private static <K, V> Map<K, V> newRandomAccessMap(int expectedSize, ListOption... options) {
+    if (Arrays.asList(options).contains(ListOption.IDENTITY_KEYS)) {
+      return new IdentityHashMap<>(Math.max(32, expectedSize));
+    }
+    return new HashMap<>(Math.max(16, (int) (expectedSize / 0.75f) + 1));
+  }
+
+  private void load(E[] sorted) {
+    // locate the first element of each partition, partitions are created in ascending order so the factory sees a growing count
+    List<Partition> partitions = new ArrayList<>();
+    int[] starts = new int[16];
+    int from = 0;
+    while (from < sorted.length) {
+      I index = sorted[from].index();
+      PartitionIndex<I> partitionIndex = partitionIdxFactory.newPartitionIndex(partitions.size(), index);
+      if (partitionIndex.compareTo(index) != 0) {
+        throw new IllegalStateException("Partition " + partitionIndex + " does not contain index " + index);
+      }
+      if (partitions.size() == starts.length) {
+        starts = Arrays.copyOf(starts, starts.length * 2);
+      }
+      starts[partitions.size()] = from;
+      partitions.add(new Partition(partitionIndex));
+      from = partitionEnd(sorted, from, partitionIndex);
+    }
+
+    Node<E>[] nodes = newNodes(sorted.length);
+    @SuppressWarnings("unchecked")
+    DoubleLinkedList<E>[] owners = (DoubleLinkedList<E>[]) new DoubleLinkedList<?>[partitions.size()];
+    for (int i = 0; i < owners.length; i++) {
+      owners[i] = partitions.get(i).list;
+    }
+    ForkJoinPool.commonPool().invoke(new BulkLinkTask<>(sorted, nodes, owners, Arrays.copyOf(starts, owners.length), 0, nodes.length));
+
+    for (int p = 0; p < owners.length; p++) {
+      int first = starts[p];
+      int last = p + 1 < owners.length ? starts[p + 1] - 1 : nodes.length - 1;
+      owners[p].adopt(nodes[first], nodes[last], last - first + 1);
+    }
+    if (!deferred) {
+      for (Node<E> node : nodes) {
+        randomAccessMap.put(node.item, node);
+      }
+    }
+    partitions.forEach(p -> partitionDirectory.put(p.index.min(), p));
+    directoryModCount ++;
+    partitions.forEach(this::registerSlot);
+  }
+
+  /**
+   * @return the position after the last sorted element that falls in to the given partition.
+   */
+  private int partitionEnd(E[] sorted, int from, PartitionIndex<I> partitionIndex) {
+    int low = from;
+    int high = sorted.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (partitionIndex.compareTo(sorted[mid].index()) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Creates and links the nodes for a range of sorted elements. Ranges are split in half until they fall below
+   * {@link #BULK_LINK_THRESHOLD}, the halves are then joined by linking the last node of the left range to the first node of the
+   * right range when both belong to the same partition.
+   */
+  private static class BulkLinkTask<E> extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final E[] sorted;
+    private final Node<E>[] nodes;
+    private final DoubleLinkedList<E>[] owners;
+    private final int[] starts;
+    private final int from;
+    private final int to;
+
+    BulkLinkTask(E[] sorted, Node<E>[] nodes, DoubleLinkedList<E>[] owners, int[] starts, int from, int to) {
+      this.sorted = sorted;
+      this.nodes = nodes;
+      this.owners = owners;
+      this.starts = starts;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= BULK_LINK_THRESHOLD) {
+        int partition = partitionOf(from);
+        int nextStart = partition + 1 < starts.length ? starts[partition + 1] : Integer.MAX_VALUE;
+        Node<E> prev = null;
+        for (int i = from; i < to; i++) {
+          if (i == nextStart) {
+            partition ++;
+            nextStart = partition + 1 < starts.length ? starts[partition + 1] : Integer.MAX_VALUE;
+            prev = null;
+          }
+          Node<E> node = owners[partition].newNode(sorted[i], prev);
+          if (prev != null) {
+            prev.next = node;
+          }
+          nodes[i] = node;
+          prev = node;
+        }
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(
+          new BulkLinkTask<>(sorted, nodes, owners, starts, from, mid),
+          new BulkLinkTask<>(sorted, nodes, owners, starts, mid, to));
+      if (partitionOf(mid - 1) == partitionOf(mid)) {
+        nodes[mid - 1].next = nodes[mid];
+        nodes[mid].prev = nodes[mid - 1];
+      }
+    }
+
+    private int partitionOf(int position) {
+      int found = Arrays.binarySearch(starts, position);
+      return found >= 0 ? found : -found - 2;
+    }
   }
 
   public int size() {
-    return randomAccessMap.size();
+    if (deferred) {
+      int size = 0;
+      for (Partition partition : partitionDirectory.values()) {
+        size += partition.list.size();
+      }
+      return size;
+    }
+    return randomAccessMap.size() + spilledElements();
+  }
+
+  private int spilledElements() {
+    return tier != null ? tier.spilledElements() : 0;
+  }
+
+  /**
+   * Builds the random access map of a {@link ListOption#LAZY_INDEX} list before its first keyed operation, the elements of every
+   * partition are added with a single walk of its chain in to a map pre-sized for the whole list.
+   */
+  private void index() {
+    if (!deferred) {
+      return;
+    }
+    Map<E, Node<E>> map = newRandomAccessMap(size(), options.toArray(new ListOption[0]));
+    // partitions that have already been searched through their own lists have entries in the current map
+    map.putAll(randomAccessMap);
+    randomAccessMap = map;
+    deferred = false;
+    for (Partition partition : partitionDirectory.values()) {
+      partition.list.rebind(map);
+      partition.list.index();
+    }
   }
 
   public boolean isEmpty() {
-    return randomAccessMap.isEmpty();
+    return size() == 0;
   }
 
+  @SuppressWarnings("unchecked")
   public boolean contains(Object o) {
-    return randomAccessMap.containsKey(o);
+    index();
+    if (randomAccessMap.containsKey(o)) {
+      return true;
+    }
+    if (spilledElements() == 0 || !(o instanceof Indexed<?> indexed)) {
+      return false;
+    }
+    Partition partition = findExistingPartition((Indexed<I>) indexed);
+    return partition != null && partition.list.contains(o);
   }
 
   public Iterator<E> elementIterator() {
+    return elementIterator(partitionDirectory.values().iterator(), Collections.emptyIterator());
+  }
+
+  /**
+   * @return an iterator in index order starting at, and including, the given element, for example an element found through a
+   *     {@link SecondaryIndex}.
+   * @throws IllegalArgumentException if the element is not in the list.
+   */
+  public Iterator<E> elementIterator(E from) {
+    Partition partition = findExistingPartition(from);
+    if (partition == null || !partition.list.contains(from)) {
+      throw new IllegalArgumentException("Could not find list node for [" + from + "]");
+    }
+    return elementIterator(partitionDirectory.tailMap(partition.index.min(), false).values().iterator(), partition.list.iterator(from));
+  }
+
+  private Iterator<E> elementIterator(Iterator<Partition> following, Iterator<E> first) {
     return new Iterator<E>() {
-      Iterator<Partition> partitions = partitionList.iterator();
-      Partition partition = null;
-      Iterator<E> listItr;
+      Iterator<Partition> partitions = following;
+      Iterator<E> listItr = first;
 
       @Override
       public boolean hasNext() {
-        if (partitions.hasNext() && listItr == null) {
-          partition = partitions.next();
-          listItr = partition.list.iterator();
+        // move along the horizontal list until a vertical list with items remaining is found
+        while (!listItr.hasNext() && partitions.hasNext()) {
+          listItr = resident(partitions.next()).list.iterator();
         }
-        return partition != null && partitions.hasNext() && listItr.hasNext();
+        return listItr.hasNext();
       }
 
-
       @Override
       public E next() {
-        if (listItr == null || !listItr.hasNext()) {
+        if (!hasNext()) {
           throw new NoSuchElementException();
         }
-        // return next item from the vertical list
-        E result = listItr.next();
-        if (!listItr.hasNext()) {
-          // we have been over the entire vertical list so move to the next horizontal node
-          listItr = null;
-        }
-        return result;
+        return listItr.next();
       }
     };
   }
@@ -131,17 +810,375 @@ public class PartitionedLinkedList<I extends Comparable<? super I>, E extends In
     return StreamSupport.stream(spliterator, false);
   }
 
+  /**
+   * Performs the action for every element using one fork-join task per partition, and per chunk of a large partition, on the common
+   * {@link ForkJoinPool}. The action must be safe to call from several threads and must not modify the list, elements are visited
+   * in list order within a chunk but in no particular order across partitions and chunks.
+   * <br/>
+   * Partitions of a tiered list are visited one at a time as faulting in a partition may spill another.
+   */
+  public void forEachPartitionParallel(Consumer<? super E> action) {
+    Objects.requireNonNull(action);
+    forEachPartition(partition -> {
+      Node<E>[] nodes = nodes(partition.list);
+      chunked(nodes.length, i -> action.accept(nodes[i].item));
+    });
+  }
+
+  /**
+   * Replaces every element with the result of the operator, which is applied in parallel as for
+   * {@link #forEachPartitionParallel(Consumer)}.
+   * <br/>
+   * A replacement with the same index as the element it replaces takes its place in the partition's chain. The random access map,
+   * secondary and interval indexes are updated once per partition in a batch holding the map's lock, aggregate summaries are updated
+   * by the partition's own task. Replacements with a different index are moved to their place once all partitions are done, see
+   * {@link #moveTo(Indexed, Indexed)}.
+   *
+   * @param operator returns the replacement of an element, or the element itself to leave it unchanged.
+   */
+  @SuppressWarnings("unchecked")
+  public void parallelReplaceAll(UnaryOperator<E> operator) {
+    Objects.requireNonNull(operator);
+    index();
+    List<Replacement<E>> moves = Collections.synchronizedList(new ArrayList<>());
+    forEachPartition(partition -> {
+      Node<E>[] nodes = nodes(partition.list);
+      Object[] replacements = new Object[nodes.length];
+      chunked(nodes.length, i -> replacements[i] = Objects.requireNonNull(operator.apply(nodes[i].item)));
+      List<Replacement<E>> replaced = new ArrayList<>();
+      for (int i = 0; i < nodes.length; i++) {
+        E was = nodes[i].item;
+        E now = (E) replacements[i];
+        if (now == was) {
+          continue;
+        }
+        if (now.index().compareTo(was.index()) == 0) {
+          nodes[i].item = now;
+          partition.summaryRemoved(was);
+          partition.summaryAdded(now);
+          replaced.add(new Replacement<>(was, now, nodes[i]));
+        } else {
+          moves.add(new Replacement<>(was, now, nodes[i]));
+        }
+      }
+      if (replaced.isEmpty()) {
+        return;
+      }
+      partition.list.modified();
+      synchronized (randomAccessMap) {
+        // remove every replaced element first so that an element replaced by another in the same batch keeps its entry
+        replaced.forEach(r -> randomAccessMap.remove(r.was()));
+        for (Replacement<E> r : replaced) {
+          randomAccessMap.put(r.now(), r.node());
+          for (ElementListener<? super E> listener : listeners) {
+            listener.replaced(r.was(), r.now());
+          }
+        }
+      }
+    });
+    for (Replacement<E> move : moves) {
+      moveTo(move.was(), move.now());
+    }
+  }
+
+  /**
+   * Removes every element matching the filter. Each partition is filtered by its own fork-join task, the filter of a large partition
+   * is evaluated in parallel chunks before the partition's chain is relinked in a single walk, see
+   * {@link DoubleLinkedList#removeIf(Predicate)}. The random access map, secondary and interval indexes are updated once per
+   * partition in a batch holding the map's lock.
+   *
+   * @param filter must be safe to call from several threads.
+   * @return true if any elements were removed.
+   */
+  public boolean parallelRemoveIf(Predicate<? super E> filter) {
+    Objects.requireNonNull(filter);
+    index();
+    LongAdder removedCount = new LongAdder();
+    forEachPartition(partition -> {
+      DoubleLinkedList<E> list = partition.list;
+      List<E> removed = new ArrayList<>();
+      if (list.size() > PARALLEL_CHUNK) {
+        Node<E>[] nodes = nodes(list);
+        boolean[] matches = new boolean[nodes.length];
+        chunked(nodes.length, i -> matches[i] = filter.test(nodes[i].item));
+        // the walk visits the nodes in the order they were tested
+        int[] position = new int[1];
+        list.unlinkIf(e -> matches[position[0]++], removed::add);
+      } else {
+        list.unlinkIf(filter, removed::add);
+      }
+      if (removed.isEmpty()) {
+        return;
+      }
+      removed.forEach(partition::summaryRemoved);
+      synchronized (randomAccessMap) {
+        partition.markReclaimCandidate();
+        for (E e : removed) {
+          randomAccessMap.remove(e);
+          for (ElementListener<? super E> listener : listeners) {
+            listener.removed(e);
+          }
+        }
+      }
+      removedCount.add(removed.size());
+    });
+    reclaimEmptyPartitions();
+    return removedCount.sum() > 0;
+  }
+
+  private record Replacement<E>(E was, E now, Node<E> node) {
+  }
+
+  /**
+   * Runs the work for every non empty partition, in parallel unless the list is tiered.
+   */
+  private void forEachPartition(Consumer<Partition> work) {
+    if (tier != null) {
+      for (Partition partition : partitionDirectory.values()) {
+        work.accept(resident(partition));
+      }
+      return;
+    }
+    List<ForkJoinTask<?>> tasks = new ArrayList<>(partitionDirectory.size());
+    for (Partition partition : partitionDirectory.values()) {
+      if (!partition.list.isEmpty()) {
+        tasks.add(ForkJoinTask.adapt(() -> work.accept(partition)));
+      }
+    }
+    ForkJoinTask.invokeAll(tasks);
+  }
+
+  private static void chunked(int length, IntConsumer work) {
+    if (length <= PARALLEL_CHUNK) {
+      for (int i = 0; i < length; i++) {
+        work.accept(i);
+      }
+    } else {
+      IntStream.range(0, length).parallel().forEach(work);
+    }
+  }
+
+  private static <E> Node<E>[] nodes(DoubleLinkedList<E> list) {
+    Node<E>[] nodes = newNodes(list.size());
+    int i = 0;
+    for (Node<E> node = list.head(); node != null; node = node.next) {
+      nodes[i++] = node;
+    }
+    return nodes;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E> Node<E>[] newNodes(int length) {
+    return (Node<E>[]) new Node<?>[length];
+  }
+
+  // a generic array can not be created, so the ring is created with the wildcard type
+  @SuppressWarnings("unchecked")
+  private Partition[] newSlotRing(int length) {
+    return (Partition[]) new PartitionedLinkedList<?, ?>.Partition[length];
+  }
+
+  /**
+   * Creates an immutable, read optimised copy of the list, see {@link FrozenPartitionedList}, that can be thawed back to a new
+   * mutable list. The elements of each partition are copied in index order, which is their list order unless they have been linked
+   * out of order through {@link #linkedList(Indexed)}. Aggregators, secondary and interval indexes and tiering are not carried over.
+   */
+  public FrozenPartitionedList<I, E> freeze() {
+    List<E> elements = new ArrayList<>(size());
+    List<PartitionIndex<I>> partitions = new ArrayList<>(partitionDirectory.size());
+    int[] starts = new int[partitionDirectory.size() + 1];
+    for (Partition partition : partitionDirectory.values()) {
+      E[] sorted = partition.sorted();
+      if (partition.sortedCount > 0) {
+        starts[partitions.size()] = elements.size();
+        partitions.add(partition.index);
+        elements.addAll(Arrays.asList(sorted).subList(0, partition.sortedCount));
+      }
+    }
+    starts[partitions.size()] = elements.size();
+    return new FrozenPartitionedList<>(partitionIdxFactory, options.toArray(new ListOption[0]), elements, partitions,
+        Arrays.copyOf(starts, partitions.size() + 1));
+  }
+
   public void clear() {
+    for (Partition partition : partitionDirectory.values()) {
+      if (partition.spilled()) {
+        partition.dropSegment();
+        partition.invalidateSummaries();
+        tier.resident(partition);
+      }
+      partition.list.clear();
+      partition.markReclaimCandidate();
+    }
     randomAccessMap.clear();
-    partitionList.stream().forEach(p -> p.list.clear());
+    reclaimEmptyPartitions();
+    if (options.contains(ListOption.LAZY_INDEX)) {
+      deferred = true;
+      partitionDirectory.values().forEach(p -> p.list.deferIndex());
+    }
+  }
+
+  /**
+   * Reclaims partitions whose lists have become empty, for example when a rolling window of data moves on, so that the partition
+   * directory and slot ring only hold partitions with elements.
+   * <br/>
+   * Up to retained empty partitions are kept, the most recently emptied first, so a partition that empties and refills, such as
+   * the live partition of a rolling window, is reused rather than reclaimed and created again. A partition that is emptied is
+   * reclaimed by the next {@link #add(Indexed)}, move, reindex, {@link #parallelRemoveIf(Predicate)} or {@link #clear()} once
+   * more than retained partitions are empty. Lists returned by {@link #linkedList(Indexed)} should not be held across those
+   * operations as their partition may be reclaimed, leaving them detached from this list.
+   *
+   * @param retained the number of empty partitions to keep, 0 to reclaim every empty partition.
+   */
+  public void reclaimEmptyPartitions(int retained) {
+    if (retained < 0) {
+      throw new IllegalArgumentException("retained MUST not be negative");
+    }
+    boolean enabling = retainedEmptyPartitions < 0;
+    retainedEmptyPartitions = retained;
+    if (enabling) {
+      for (Partition partition : partitionDirectory.values()) {
+        partition.listen();
+        partition.markReclaimCandidate();
+      }
+    }
+    reclaimEmptyPartitions();
+  }
+
+  /**
+   * Reclaims every empty partition, whether or not {@link #reclaimEmptyPartitions(int)} has been enabled, then rebuilds the slot
+   * ring at the smallest length that holds the remaining partitions.
+   *
+   * @return the number of partitions reclaimed.
+   */
+  public int compact() {
+    long before = reclaimedPartitions;
+    for (Partition partition : new ArrayList<>(partitionDirectory.values())) {
+      if (partition.empty()) {
+        reclaim(partition);
+      }
+    }
+    reclaimCandidates.forEach(p -> p.reclaimCandidate = false);
+    reclaimCandidates.clear();
+    if (fixedWidthFactory != null) {
+      int length = INITIAL_SLOT_RING;
+      while (!fitsRing(length) && length < MAX_SLOT_RING) {
+        length *= 2;
+      }
+      slotRing = newSlotRing(length);
+      slotRingOverflow = false;
+      partitionDirectory.values().forEach(this::placeSlot);
+    }
+    return (int) (reclaimedPartitions - before);
+  }
+
+  /**
+   * @return the number of empty partitions that have been reclaimed since the list was created.
+   */
+  public long reclaimedPartitionCount() {
+    return reclaimedPartitions;
+  }
+
+  /**
+   * Queues the candidate partitions that are now empty and reclaims the least recently emptied partitions beyond the number
+   * retained.
+   */
+  private void reclaimEmptyPartitions() {
+    if (reclaimCandidates.isEmpty() || retainedEmptyPartitions < 0) {
+      return;
+    }
+    for (Partition partition : reclaimCandidates) {
+      partition.reclaimCandidate = false;
+      if (!partition.queuedEmpty && partition.empty() && partitionDirectory.get(partition.index.min()) == partition) {
+        emptyPartitions.addFirst(partition);
+        partition.queuedEmpty = true;
+      }
+    }
+    reclaimCandidates.clear();
+    while (emptyPartitions.size() > retainedEmptyPartitions) {
+      reclaim(emptyPartitions.peekTail());
+    }
+  }
+
+  private void reclaim(Partition partition) {
+    removePartition(partition);
+    reclaimedPartitions ++;
+  }
+
+  private void removePartition(Partition partition) {
+    partitionDirectory.remove(partition.index.min());
+    directoryModCount ++;
+    if (fixedWidthFactory != null) {
+      int position = ringPosition(partition.slot, slotRing.length);
+      if (slotRing[position] == partition) {
+        slotRing[position] = null;
+      }
+    }
+    if (partition.spilled()) {
+      partition.dropSegment();
+    }
+    if (tier != null) {
+      tier.removed(partition);
+    }
+    if (partition.queuedEmpty) {
+      emptyPartitions.remove(partition);
+      partition.queuedEmpty = false;
+    }
+    partition.list.listener(null);
+  }
+
+  /**
+   * Creates a {@link SecondaryIndex} of the elements of this list that is kept up to date on every add, remove, replace and move,
+   * {@link #elementIterator(Indexed)} continues in index order from any element the index finds.
+   *
+   * @param keyExtractor derives the key of each element.
+   * @param type the type of map used to hold the keys.
+   * @return the new index, populated with the current elements.
+   * @throws IllegalStateException if the list is tiered.
+   */
+  public <K> SecondaryIndex<K, E> addIndex(Function<? super E, ? extends K> keyExtractor, SecondaryIndex.Type type) {
+    SecondaryIndex<K, E> index = new SecondaryIndex<>(keyExtractor, type, options.toArray(new ListOption[0]));
+    addListener(index);
+    return index;
+  }
+
+  /**
+   * Creates an {@link IntervalIndex} of the elements of this list that is kept up to date on every add, remove, replace and move.
+   * Elements implementing {@link Scheduled} can pass {@code Scheduled::end}.
+   *
+   * @param end derives the exclusive end of each element, the element's index is its inclusive start.
+   * @param length measures the distance between two indexes, used to find gaps longer than a given length.
+   * @return the new index, populated with the current elements.
+   * @throws IllegalStateException if the list is tiered.
+   */
+  public IntervalIndex<I, E> addIntervalIndex(Function<? super E, ? extends I> end, ToLongBiFunction<? super I, ? super I> length) {
+    IntervalIndex<I, E> index = new IntervalIndex<>(end, length, options.toArray(new ListOption[0]));
+    addListener(index);
+    return index;
+  }
+
+  private void addListener(ElementListener<? super E> listener) {
+    if (tier != null) {
+      // an index holds every element, which would defeat spilling
+      throw new IllegalStateException("Secondary and interval indexes can not be added to a tiered list");
+    }
+    elementIterator().forEachRemaining(listener::added);
+    listeners.add(listener);
+    partitionDirectory.values().forEach(p -> p.list.listener(p));
   }
 
   public boolean add(E item) {
-    return findPartition(item).list.add(item);
+    reclaimEmptyPartitions();
+    Partition partition = findPartition(item);
+    partition.list.add(item);
+    if (tier != null) {
+      spillColdPartitions(partition);
+    }
+    return true;
   }
 
   int partitionCount() {
-    return partitionList.size();
+    return partitionDirectory.size();
   }
 
   public DoubleLinkedList<E> linkedList(Indexed<I> idx) {
@@ -152,43 +1189,629 @@ public class PartitionedLinkedList<I extends Comparable<? super I>, E extends In
     return partition.list;
   }
 
-  private Partition findExistingPartition(Indexed<I> idx) {
-    ListIterator<Partition> itr = partitionList.listIterator();
-    while (itr.hasNext()) {
-      Partition partition = itr.next();
-      int cmp = partition.index.compareTo(idx.index());
-      if (cmp == 0) {
-        return partition;
+  /**
+   * Replaces an element with one that has a different index, for example a rescheduled item, moving it to its place in index order.
+   * <br/>
+   * The existing node is relinked in to the partition of the new element after the last element with an index less than or equal
+   * to the new index, no node is allocated and only the random access map entry is replaced.
+   *
+   * @param was the element in the list.
+   * @param now the element to replace it with.
+   * @throws IllegalArgumentException if was is not in the list.
+   */
+  public void moveTo(E was, E now) {
+    reclaimEmptyPartitions();
+    index();
+    Partition from = findExistingPartition(was);
+    if (from == null || from.list.node(was) == null) {
+      throw new IllegalArgumentException("Could not find list node for [" + was + "]");
+    }
+    // created only once was is known to be linked, and before anything changes so that a factory failure leaves the list unchanged
+    Partition to = findPartition(now);
+    // faulting in the partition of now may have spilled the partition of was
+    from = findExistingPartition(was);
+    Node<E> node = from.list.node(was);
+    from.list.detach(node);
+    randomAccessMap.remove(was);
+    node.item = now;
+    randomAccessMap.put(now, node);
+    resident(to);
+    E floor = to.floor(now.index(), true);
+    to.list.attach(node, floor != null ? randomAccessMap.get(floor) : null);
+  }
+
+  /**
+   * Moves an element whose index has changed in place to its new partition and position, see {@link #moveTo(Object, Object)}.
+   * <br/>
+   * The random access map is left untouched so the element's {@code hashCode} and {@code equals} must not depend on its index,
+   * {@link ListOption#IDENTITY_KEYS} is a good fit for mutable elements.
+   * <br/>
+   * A move costs a random access map lookup and a search of the new partition, except in {@link ListOption#COMPACT_NODES} mode
+   * where a node does not record its partition and proving it is linked in the partition of previousIndex walks the chain from the
+   * node to the nearer end, so a move can cost up to the size of that partition.
+   *
+   * @param element the element, its {@code index()} already returns the new index.
+   * @param previousIndex the index the element had when it was last added or moved, used to find the partition it is linked in.
+   * @throws IllegalArgumentException if the element is not in the partition of previousIndex.
+   */
+  public void reindex(E element, I previousIndex) {
+    reclaimEmptyPartitions();
+    index();
+    movedNode(element, previousIndex);
+    Partition to = findPartition(element);
+    Node<E> node = detachMoved(element, previousIndex);
+    resident(to);
+    E floor = to.floor(element.index(), true);
+    to.list.attach(node, floor != null ? randomAccessMap.get(floor) : null);
+  }
+
+  /**
+   * Moves many elements whose indexes have changed, see {@link #reindex(Indexed, Comparable)}.
+   * <br/>
+   * All elements are detached first, then the moved elements of each partition are sorted and merged in to the partition's chain
+   * in a single pass, so a batch costs one walk of each affected partition rather than a search per element.
+   *
+   * @param previousIndexes the elements to move mapped to the index each had when it was last added or moved.
+   * @throws IllegalArgumentException if an element is not in the partition of its previous index, every element is checked before
+   *     any partition is created or any element detached so the list is left unchanged.
+   */
+  public void reindexAll(Map<? extends E, ? extends I> previousIndexes) {
+    reclaimEmptyPartitions();
+    index();
+    for (Map.Entry<? extends E, ? extends I> entry : previousIndexes.entrySet()) {
+      movedNode(entry.getKey(), entry.getValue());
+    }
+    Map<Partition, List<Node<E>>> moves = new HashMap<>();
+    List<Partition> created = new ArrayList<>();
+    try {
+      for (E element : previousIndexes.keySet()) {
+        int count = partitionCount();
+        Partition partition = findPartition(element);
+        if (partitionCount() > count) {
+          created.add(partition);
+        }
+        moves.computeIfAbsent(partition, p -> new ArrayList<>());
       }
+    } catch (RuntimeException e) {
+      // a factory failure leaves the list unchanged
+      created.forEach(this::removePartition);
+      throw e;
     }
-    return null;
+    for (Map.Entry<? extends E, ? extends I> entry : previousIndexes.entrySet()) {
+      Node<E> node = detachMoved(entry.getKey(), entry.getValue());
+      moves.get(findPartition(node.item)).add(node);
+    }
+    moves.forEach(this::mergeNodes);
   }
 
-  private Partition findPartition(Indexed<I> idx) {
-    ListIterator<Partition> itr = partitionList.listIterator();
-    if (!itr.hasNext()) {
-      Partition result = new Partition(partitionIdxFactory.newPartitionIndex(partitionCount(), idx.index()));
-      itr.add(result);
+  /**
+   * Links detached nodes in to a partition in index order with a single walk of the partition's chain, nodes are placed after
+   * elements with an equal index.
+   */
+  private void mergeNodes(Partition partition, List<Node<E>> nodes) {
+    // finding a later partition may have spilled this one
+    resident(partition);
+    nodes.sort(Comparator.comparing(n -> n.item.index()));
+    DoubleLinkedList<E> list = partition.list;
+    Node<E> after = null;
+    Node<E> next = list.head();
+    for (Node<E> node : nodes) {
+      I idx = node.item.index();
+      while (next != null && next.item.index().compareTo(idx) <= 0) {
+        after = next;
+        next = next.next;
+      }
+      list.attach(node, after);
+      after = node;
+    }
+  }
+
+  /**
+   * Moves every element of another list in to this list, leaving the other list empty, for example to merge an incoming feed in to
+   * a live schedule.
+   * <br/>
+   * A partition of the other list whose index range does not overlap any partition of this list is spliced in to the partition
+   * directory whole, its chain of nodes is adopted without copying or allocating. The splice is O(1) only in
+   * {@link ListOption#COMPACT_NODES} mode with no listeners, aggregators, indexes, sorted queries or partition reclamation on
+   * either list. Otherwise the partition's chain is walked, up to twice, to rebind each node to its new partition and to notify
+   * both lists of the moved elements, so the splice costs O(partition) but still allocates nothing. The nodes of a partition that does overlap are merged in to the chains of the partitions of this list
+   * with a single walk of each, as for {@link #reindexAll(Map)}. The random access map
+   * entries of all the moved elements are then transferred in one bulk {@code putAll}, an element equal to one already in this
+   * list replaces its map entry as it would for {@link #add(Indexed)}.
+   * <br/>
+   * Spliced partitions keep the index created by the other list's factory, so both lists must use equal
+   * {@link PartitionIndexFactory}s. Listeners, aggregators and secondary and interval indexes of both lists are kept up to date.
+   *
+   * @param other the list to merge, it must have the same {@link ListOption}s and an equal factory to this list.
+   * @throws IllegalArgumentException if other is this list or has different options or a different factory.
+   */
+  public void mergeFrom(PartitionedLinkedList<I, E> other) {
+    Objects.requireNonNull(other);
+    if (other == this) {
+      throw new IllegalArgumentException("A list can not be merged in to itself");
+    }
+    if (!options.equals(other.options)) {
+      throw new IllegalArgumentException("Lists with options " + options + " and " + other.options + " can not be merged");
+    }
+    if (!partitionIdxFactory.equals(other.partitionIdxFactory)) {
+      throw new IllegalArgumentException("Lists with different partition index factories can not be merged");
+    }
+    reclaimEmptyPartitions();
+    index();
+    other.index();
+    Map<Partition, List<Node<E>>> merges = new HashMap<>();
+    for (Partition incoming : other.partitionDirectory.values()) {
+      other.resident(incoming);
+      if (incoming.list.isEmpty()) {
+        continue;
+      }
+      if (!overlaps(incoming.index)) {
+        Partition partition = new Partition(incoming.index);
+        partition.list.adoptFrom(incoming.list);
+        partitionDirectory.put(partition.index.min(), partition);
+        directoryModCount ++;
+        registerSlot(partition);
+        continue;
+      }
+      Node<E> node = incoming.list.head();
+      while (node != null) {
+        Node<E> next = node.next;
+        incoming.list.detach(node);
+        merges.computeIfAbsent(findPartition(node.item), p -> new ArrayList<>()).add(node);
+        node = next;
+      }
+    }
+    randomAccessMap.putAll(other.randomAccessMap);
+    other.clear();
+    merges.forEach(this::mergeNodes);
+    if (tier != null) {
+      spillColdPartitions(null);
+    }
+  }
+
+  /**
+   * @return true if any partition of this list overlaps the given index range.
+   */
+  private boolean overlaps(PartitionIndex<I> index) {
+    // partitions are disjoint so only the last partition starting at or before the end of the range can overlap it
+    Map.Entry<I, Partition> entry = partitionDirectory.floorEntry(index.max());
+    return entry != null && entry.getValue().index.max().compareTo(index.min()) >= 0;
+  }
+
+  /**
+   * Detaches the node of an element that has already been checked with {@link #movedNode(Indexed, Comparable)}.
+   */
+  private Node<E> detachMoved(E element, I previousIndex) {
+    Partition from = findExistingPartition(() -> previousIndex);
+    Node<E> node = randomAccessMap.get(element);
+    from.list.detach(node);
+    // the element was changed before it was detached so it cannot be taken out of the summaries it was accumulated in to
+    from.invalidateSummaries();
+    return node;
+  }
+
+  /**
+   * Finds the node of an element whose index has changed in the partition of its previous index. The element's new index can not
+   * tell which partition the node is linked in, so in compact mode the node is proven to be linked there by walking the chain.
+   *
+   * @throws IllegalArgumentException if the node is not linked in the partition of the previous index.
+   */
+  private Node<E> movedNode(E element, I previousIndex) {
+    Partition from = findExistingPartition(() -> previousIndex);
+    Node<E> node = from != null ? randomAccessMap.get(element) : null;
+    if (node == null || !from.list.links(node)) {
+      throw new IllegalArgumentException("Could not find list node for [" + element + "] at index " + previousIndex);
+    }
+    return node;
+  }
+
+  /**
+   * Registers an aggregator whose summary is maintained for each partition, see {@link #aggregate(Aggregator, Comparable, Comparable)}.
+   * Summaries are calculated when first needed and then kept up to date on every add, remove and replace.
+   */
+  public void addAggregator(Aggregator<? super E, ?> aggregator) {
+    Objects.requireNonNull(aggregator);
+    if (aggregators.contains(aggregator)) {
+      return;
+    }
+    aggregators.add(aggregator);
+    partitionDirectory.values().forEach(p -> p.list.listener(p));
+  }
+
+  /**
+   * @return the summary of every element in the list.
+   * @throws IllegalArgumentException if the aggregator has not been registered.
+   */
+  public <A> A aggregate(Aggregator<? super E, A> aggregator) {
+    int position = aggregatorPosition(aggregator);
+    A result = aggregator.identity();
+    for (Partition partition : partitionDirectory.values()) {
+      result = aggregator.combine(result, partition.summary(position));
+    }
+    return result;
+  }
+
+  /**
+   * Summarises the elements with an index from, inclusive, to, exclusive. The summaries of partitions that lie within the range
+   * are combined and only the elements of the partitions at either edge of the range are visited, so the cost is proportional to
+   * the number of partitions rather than the number of elements.
+   *
+   * @return the summary of the elements in the range.
+   * @throws IllegalArgumentException if the aggregator has not been registered.
+   */
+  public <A> A aggregate(Aggregator<? super E, A> aggregator, I from, I to) {
+    int position = aggregatorPosition(aggregator);
+    A result = aggregator.identity();
+    if (from.compareTo(to) >= 0) {
       return result;
     }
-    while (itr.hasNext()) {
-      Partition partition = itr.next();
-      int cmp = partition.index.compareTo(idx.index());
-      if (cmp < 0) {
-        itr.previous();
-        Partition result = new Partition(partitionIdxFactory.newPartitionIndex(partitionCount(), idx.index()));
-        itr.add(result);
-        return result;
-      } else if (cmp == 0) {
-        return partition;
+    I start = partitionDirectory.floorKey(from);
+    for (Partition partition : partitionDirectory.subMap(start != null ? start : from, true, to, false).values()) {
+      if (partition.index.min().compareTo(from) >= 0 && partition.index.max().compareTo(to) < 0) {
+        result = aggregator.combine(result, partition.summary(position));
       } else {
-        if (!itr.hasNext()) {
-          Partition result = new Partition(partitionIdxFactory.newPartitionIndex(partitionCount(), idx.index()));
-          itr.add(result);
-          return result;
+        int end = partition.position(to, false);
+        for (int i = partition.position(from, false); i < end; i++) {
+          result = aggregator.accumulate(result, partition.sorted[i]);
         }
       }
     }
-    throw new NoSuchElementException("Could not find Partition");
+    return result;
+  }
+
+  /**
+   * Has every partition keep a packed column of the keys of its sorted elements, for example epoch millis for a
+   * {@code LocalDateTime} index, so that range queries binary search primitive longs rather than calling {@code index()} and
+   * {@code compareTo} on every element they pass. The column is patched with the partition's sorted elements as elements are linked
+   * and unlinked.
+   *
+   * @param key maps an index to a long, it must preserve the order of the indexes, for equal longs the indexes must be equal.
+   */
+  public void setKeyColumn(ToLongFunction<? super I> key) {
+    Objects.requireNonNull(key);
+    keyColumn = key;
+    partitionDirectory.values().forEach(p -> p.sorted = null);
+  }
+
+  /**
+   * @return the number of elements with an index from, inclusive, to, exclusive, partitions within the range are counted without
+   *     being searched.
+   */
+  public int count(I from, I to) {
+    int count = 0;
+    for (Partition partition : rangePartitions(from, to)) {
+      if (partition.index.min().compareTo(from) >= 0 && partition.index.max().compareTo(to) < 0) {
+        count += partition.size();
+      } else {
+        count += partition.position(to, false) - partition.position(from, false);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return the elements with an index from, inclusive, to, exclusive, in index order.
+   */
+  public List<E> range(I from, I to) {
+    List<E> result = new ArrayList<>();
+    for (Partition partition : rangePartitions(from, to)) {
+      int start = partition.position(from, false);
+      result.addAll(Arrays.asList(partition.sorted).subList(start, Math.max(start, partition.position(to, false))));
+    }
+    return result;
+  }
+
+  private Collection<Partition> rangePartitions(I from, I to) {
+    if (from.compareTo(to) >= 0) {
+      return List.of();
+    }
+    I start = partitionDirectory.floorKey(from);
+    return partitionDirectory.subMap(start != null ? start : from, true, to, false).values();
+  }
+
+  /**
+   * @return the summary of each partition keyed by the partition's index, in index order.
+   * @throws IllegalArgumentException if the aggregator has not been registered.
+   */
+  public <A> NavigableMap<I, A> aggregateByPartition(Aggregator<? super E, A> aggregator) {
+    int position = aggregatorPosition(aggregator);
+    NavigableMap<I, A> result = new TreeMap<>();
+    partitionDirectory.forEach((min, partition) -> result.put(min, partition.summary(position)));
+    return result;
+  }
+
+  private int aggregatorPosition(Aggregator<?, ?> aggregator) {
+    int position = aggregators.indexOf(aggregator);
+    if (position < 0) {
+      throw new IllegalArgumentException("Aggregator has not been registered");
+    }
+    return position;
+  }
+
+  /**
+   * @return the element with the greatest index less than or equal to the given index, or null if there is no such element.
+   */
+  public E floor(I idx) {
+    return floor(idx, true);
+  }
+
+  /**
+   * @return the element with the greatest index strictly less than the given index, or null if there is no such element.
+   */
+  public E lower(I idx) {
+    return floor(idx, false);
+  }
+
+  /**
+   * @return the element with the least index greater than or equal to the given index, or null if there is no such element.
+   */
+  public E ceiling(I idx) {
+    return ceiling(idx, true);
+  }
+
+  /**
+   * @return the element with the least index strictly greater than the given index, or null if there is no such element.
+   */
+  public E higher(I idx) {
+    return ceiling(idx, false);
+  }
+
+  /**
+   * Creates a {@link Cursor} positioned at the given index.
+   */
+  public Cursor cursor(I idx) {
+    return new Cursor(idx);
+  }
+
+  private E floor(I idx, boolean inclusive) {
+    // only the first partition visited can hold elements beyond idx, the others answer with their last element
+    for (Partition partition : partitionDirectory.headMap(idx, true).descendingMap().values()) {
+      E result = partition.floor(idx, inclusive);
+      if (result != null) {
+        return result;
+      }
+    }
+    return null;
+  }
+
+  private E ceiling(I idx, boolean inclusive) {
+    Map.Entry<I, Partition> entry = partitionDirectory.floorEntry(idx);
+    if (entry != null) {
+      E result = entry.getValue().ceiling(idx, inclusive);
+      if (result != null) {
+        return result;
+      }
+    }
+    for (Partition partition : partitionDirectory.tailMap(idx, false).values()) {
+      E[] items = partition.sorted();
+      if (partition.sortedCount > 0) {
+        return items[0];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Answers "what is on now" and "what is on next" for an index that moves forward, for example the current time.
+   * <br/>
+   * The cursor remembers its position within the sorted elements of the current partition so advancing by a small amount only
+   * steps over the elements that have been passed, making repeated queries amortized O(1). Moving backwards, moving beyond the
+   * current partition or modifying the partition causes the cursor to be positioned again with a binary search.
+   */
+  public class Cursor {
+    private I idx;
+    private Partition partition;
+    private E[] items;
+    private int count;
+    private int itemsModCount;
+    private int itemsDirectoryModCount;
+    // position of the first element in items with an index greater than idx
+    private int position;
+
+    private Cursor(I idx) {
+      seek(idx);
+    }
+
+    /**
+     * @return the index the cursor is positioned at.
+     */
+    public I index() {
+      return idx;
+    }
+
+    /**
+     * Moves the cursor to the given index.
+     */
+    public void advance(I to) {
+      Objects.requireNonNull(to);
+      if (partition == null || stale() || to.compareTo(idx) < 0 || partition.index.compareTo(to) != 0) {
+        seek(to);
+        return;
+      }
+      while (position < count && items[position].index().compareTo(to) <= 0) {
+        position ++;
+      }
+      idx = to;
+    }
+
+    /**
+     * @return the element with the greatest index less than or equal to the cursor index, or null if there is none.
+     */
+    public E current() {
+      if (partition == null || stale()) {
+        seek(idx);
+      }
+      if (partition != null && position > 0) {
+        return items[position - 1];
+      }
+      return floor(idx);
+    }
+
+    /**
+     * @return the element with the least index strictly greater than the cursor index, or null if there is none.
+     */
+    public E next() {
+      if (partition == null || stale()) {
+        seek(idx);
+      }
+      if (partition != null && position < count) {
+        return items[position];
+      }
+      return higher(idx);
+    }
+
+    private boolean stale() {
+      return itemsModCount != partition.list.modCount() || itemsDirectoryModCount != directoryModCount;
+    }
+
+    private void seek(I to) {
+      Objects.requireNonNull(to);
+      idx = to;
+      Map.Entry<I, Partition> entry = partitionDirectory.floorEntry(to);
+      if (entry == null) {
+        partition = null;
+        items = null;
+        return;
+      }
+      partition = entry.getValue();
+      items = partition.sorted();
+      itemsModCount = partition.list.modCount();
+      itemsDirectoryModCount = directoryModCount;
+      count = partition.sortedCount;
+      position = search(items, count, to, true);
+    }
+  }
+
+  private Partition findExistingPartition(Indexed<I> idx) {
+    if (fixedWidthFactory != null) {
+      Partition partition = slotRing[ringPosition(fixedWidthFactory.slot(idx.index()), slotRing.length)];
+      if (partition != null && partition.index.compareTo(idx.index()) == 0) {
+        return resident(partition);
+      }
+      if (!slotRingOverflow) {
+        return null;
+      }
+    }
+    Map.Entry<I, Partition> entry = partitionDirectory.floorEntry(idx.index());
+    if (entry != null && entry.getValue().index.compareTo(idx.index()) == 0) {
+      return resident(entry.getValue());
+    }
+    return null;
+  }
+
+  /**
+   * Faults a spilled partition back in to the heap, together with the partitions that follow it, and records the access.
+   *
+   * @return the partition.
+   */
+  private Partition resident(Partition partition) {
+    if (tier == null) {
+      return partition;
+    }
+    if (partition.spilled()) {
+      int readAhead = tier.readAhead();
+      for (Partition next : partitionDirectory.tailMap(partition.index.min(), false).values()) {
+        if (readAhead-- == 0) {
+          break;
+        }
+        if (next.spilled()) {
+          next.faultIn();
+        }
+      }
+      partition.faultIn();
+      spillColdPartitions(partition);
+    } else {
+      tier.accessed(partition);
+    }
+    return partition;
+  }
+
+  /**
+   * Spills partitions, other than the pinned partition, until no more than the configured number of elements are on the heap.
+   */
+  private void spillColdPartitions(Partition pinned) {
+    while (tier.exceeded(randomAccessMap.size())) {
+      Partition victim = tier.victim(partitionDirectory.values(), Partition::spilled, pinned);
+      if (victim == null) {
+        return;
+      }
+      victim.spill();
+    }
+  }
+
+  /**
+   * @return the number of partitions whose elements are spilled to segment files.
+   */
+  int spilledPartitionCount() {
+    int count = 0;
+    for (Partition partition : partitionDirectory.values()) {
+      if (partition.spilled()) {
+        count ++;
+      }
+    }
+    return count;
+  }
+
+  private Partition findPartition(Indexed<I> idx) {
+    Partition partition = findExistingPartition(idx);
+    if (partition != null) {
+      return partition;
+    }
+    PartitionIndex<I> partitionIndex = partitionIdxFactory.newPartitionIndex(partitionCount(), idx.index());
+    if (partitionIndex.compareTo(idx.index()) != 0) {
+      throw new IllegalStateException("Partition " + partitionIndex + " does not contain index " + idx.index());
+    }
+    partition = new Partition(partitionIndex);
+    partitionDirectory.put(partitionIndex.min(), partition);
+    directoryModCount ++;
+    registerSlot(partition);
+    return partition;
+  }
+
+  /**
+   * Places a partition in the slot ring, growing the ring when its position is taken by another partition. Once the ring
+   * reaches {@link #MAX_SLOT_RING} colliding partitions are left out and found by searching the partition directory instead.
+   */
+  private void registerSlot(Partition partition) {
+    if (fixedWidthFactory == null) {
+      return;
+    }
+    Partition occupant = slotRing[ringPosition(partition.slot, slotRing.length)];
+    if (occupant != null && occupant != partition && slotRing.length < MAX_SLOT_RING) {
+      int length = slotRing.length * 2;
+      while (!fitsRing(length) && length < MAX_SLOT_RING) {
+        length *= 2;
+      }
+      slotRing = newSlotRing(length);
+      slotRingOverflow = false;
+      partitionDirectory.values().forEach(this::placeSlot);
+      return;
+    }
+    placeSlot(partition);
+  }
+
+  private void placeSlot(Partition partition) {
+    int position = ringPosition(partition.slot, slotRing.length);
+    if (slotRing[position] == null || slotRing[position] == partition) {
+      slotRing[position] = partition;
+    } else {
+      slotRingOverflow = true;
+    }
+  }
+
+  private boolean fitsRing(int length) {
+    boolean[] taken = new boolean[length];
+    for (Partition partition : partitionDirectory.values()) {
+      int position = ringPosition(partition.slot, length);
+      if (taken[position]) {
+        return false;
+      }
+      taken[position] = true;
+    }
+    return true;
+  }
+
+  private static int ringPosition(long slot, int length) {
+    return (int) (slot & (length - 1));
   }
-}
\ No newline at end of file
+}
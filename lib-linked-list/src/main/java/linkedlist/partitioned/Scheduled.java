@@ -0,0 +1,15 @@
+package linkedlist.partitioned;
+
+/**
+ * An {@link Indexed} element that occupies a span of the index space, for example a sequence on a channel that starts at its index
+ * and runs until its end.
+ *
+ * @param <I> the generic type of the index.
+ */
+public interface Scheduled<I> extends Indexed<I> {
+
+  /**
+   * @return the exclusive end of the element, after its index.
+   */
+  I end();
+}
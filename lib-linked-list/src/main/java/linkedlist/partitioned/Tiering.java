@@ -0,0 +1,50 @@
+package linkedlist.partitioned;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import linkedlist.ElementCodec;
+
+/**
+ * Configures a {@link PartitionedLinkedList} to spill cold partitions to memory mapped segment files so that only a bounded number
+ * of elements are held on the heap.
+ * <br/>
+ * Spilled elements are decoded as new instances when their partition is faulted in, so the elements MUST have value based
+ * {@code equals} and {@code hashCode}, an element that inherits identity equality from {@code Object} can not be tiered. A tiered
+ * list can not have secondary or interval indexes, as they hold every element on the heap.
+ *
+ * @param directory the existing directory segment files are written to.
+ * @param codec converts elements to and from bytes.
+ * @param maxResidentElements the number of elements held on the heap above which partitions are spilled.
+ * @param policy selects the partitions to spill.
+ * @param readAhead the number of following partitions faulted in with a spilled partition, so range iteration rarely waits on a
+ *     segment file.
+ * @param <E> the generic type of the list elements.
+ */
+public record Tiering<E>(Path directory, ElementCodec<E> codec, int maxResidentElements, Policy policy, int readAhead) {
+
+  public enum Policy {
+    /**
+     * Spills the partition that was least recently accessed.
+     */
+    LRU,
+    /**
+     * Spills the partition with the lowest index, for schedules where the past is rarely read.
+     */
+    INDEX_AGE
+  }
+
+  public Tiering {
+    Objects.requireNonNull(codec);
+    Objects.requireNonNull(policy);
+    if (!Files.isDirectory(directory)) {
+      throw new IllegalArgumentException("directory MUST exist");
+    }
+    if (maxResidentElements < 1) {
+      throw new IllegalArgumentException("maxResidentElements MUST be positive");
+    }
+    if (readAhead < 0) {
+      throw new IllegalArgumentException("readAhead MUST not be negative");
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package linkedlist.shared;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import linkedlist.ElementCodec;
+
+/**
+ * The layout of a shared list file, written by {@link SharedListWriter} and read by {@link SharedListReader}.
+ * <br/>
+ * The file starts with a header, followed by an open addressing hash table of record offsets and then the records. Each record
+ * holds the offsets of its neighbours, the element's hash and the length of the encoded element followed by the element itself,
+ * so links are file offsets rather than references and the same bytes are valid in every process that maps the file. Offset 0 is
+ * the header, so it marks a missing link or an empty slot.
+ */
+final class SharedLayout {
+
+  static final int MAGIC = 0x4C4C5348;
+  static final int FORMAT = 1;
+
+  // header fields
+  static final int MAGIC_OFFSET = 0;
+  static final int FORMAT_OFFSET = 4;
+  // a long, odd while the writer is changing the list
+  static final int SEQUENCE = 8;
+  static final int HEAD = 16;
+  static final int TAIL = 20;
+  static final int SIZE = 24;
+  static final int SLOT_COUNT = 28;
+  // the offset the next record is written at
+  static final int DATA_END = 32;
+  // the number of slots holding a record or a removed marker
+  static final int USED_SLOTS = 36;
+  static final int MAX_ELEMENTS = 40;
+  static final int HEADER_BYTES = 64;
+
+  // record fields
+  static final int NEXT = 0;
+  static final int PREV = 4;
+  static final int HASH = 8;
+  static final int LENGTH = 12;
+  static final int RECORD_HEADER_BYTES = 16;
+
+  static final int NONE = 0;
+  static final int REMOVED = -1;
+
+  static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+  static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+  private SharedLayout() {
+  }
+
+  static MappedByteBuffer map(Path file, MapMode mode, long bytes, OpenOption... options) {
+    try (FileChannel channel = FileChannel.open(file, options)) {
+      return channel.map(mode, 0, bytes < 0 ? channel.size() : bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @throws IllegalStateException if the mapped file has not been written by a writer or has a different format.
+   */
+  static void check(Path file, ByteBuffer buffer) {
+    if (buffer.capacity() < HEADER_BYTES || (int) INTS.getAcquire(buffer, MAGIC_OFFSET) != MAGIC) {
+      throw new IllegalStateException("[" + file + "] is not a shared list");
+    }
+    if (buffer.getInt(FORMAT_OFFSET) != FORMAT) {
+      throw new IllegalStateException("[" + file + "] has format " + buffer.getInt(FORMAT_OFFSET) + ", expected " + FORMAT);
+    }
+  }
+
+  static int slot(int index) {
+    return HEADER_BYTES + index * Integer.BYTES;
+  }
+
+  static int dataStart(int slotCount) {
+    return slot(slotCount);
+  }
+
+  /**
+   * Elements are found by {@code hashCode} and {@code equals} in every process, so both must depend on the element's value only.
+   */
+  static int hash(Object o) {
+    int h = o.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * @return the element of the record at the offset, decoded from the mapped bytes without copying them.
+   */
+  static <E> E element(ByteBuffer buffer, int offset, ElementCodec<E> codec) {
+    return codec.decode(buffer.slice(offset + RECORD_HEADER_BYTES, buffer.getInt(offset + LENGTH)));
+  }
+
+  /**
+   * @return the index of the slot of the record holding an element equal to o, or -1 if there is none.
+   */
+  static int find(ByteBuffer buffer, ElementCodec<?> codec, Object o) {
+    int slotCount = buffer.getInt(SLOT_COUNT);
+    int h = hash(o);
+    int mask = slotCount - 1;
+    for (int i = h & mask, probes = 0; probes < slotCount; i = (i + 1) & mask, probes++) {
+      int offset = buffer.getInt(slot(i));
+      if (offset == NONE) {
+        return -1;
+      }
+      if (offset != REMOVED && buffer.getInt(offset + HASH) == h && o.equals(element(buffer, offset, codec))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
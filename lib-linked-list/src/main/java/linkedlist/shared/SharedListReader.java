@@ -0,0 +1,211 @@
+package linkedlist.shared;
+
+import static linkedlist.shared.SharedLayout.HEAD;
+import static linkedlist.shared.SharedLayout.LONGS;
+import static linkedlist.shared.SharedLayout.NEXT;
+import static linkedlist.shared.SharedLayout.NONE;
+import static linkedlist.shared.SharedLayout.SEQUENCE;
+import static linkedlist.shared.SharedLayout.SIZE;
+import static linkedlist.shared.SharedLayout.TAIL;
+import static linkedlist.shared.SharedLayout.element;
+import static linkedlist.shared.SharedLayout.find;
+import static linkedlist.shared.SharedLayout.slot;
+
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Supplier;
+import linkedlist.ElementCodec;
+
+/**
+ * Reads a list written by a {@link SharedListWriter}, usually in another process, through a read only mapping of its file.
+ * <br/>
+ * Reads take no lock. Each reads the sequence number in the header, follows the offsets and decodes what it needs straight from
+ * the mapped bytes, then reads the sequence again. If the writer changed the list in between the read is retried, so every result
+ * is a consistent view of the list at some moment and any exception caused by reading a half written record is not seen. Whole list
+ * reads such as {@link #elements()} are snapshots, they hold nothing on the heap between calls.
+ * <br/>
+ * A read that finds the writer part way through one change for longer than the stall timeout throws
+ * {@link IllegalStateException}, as the writer has stalled or died, rather than waiting for ever. Once a new writer has taken over
+ * the file with {@link SharedListWriter#reopen(Path, ElementCodec)} reads succeed again through the same reader.
+ * <br/>
+ * A reader is safe to use from several threads. The file stays mapped until the reader has been garbage collected, Java 17 has no
+ * way to unmap a file sooner, so a reader should be kept for the life of the file rather than opened per read.
+ *
+ * @param <E> the generic type of the elements.
+ */
+public final class SharedListReader<E> implements Iterable<E> {
+
+  private static final Duration DEFAULT_STALL_TIMEOUT = Duration.ofSeconds(5);
+
+  private final Path file;
+  private final MappedByteBuffer buffer;
+  private final ElementCodec<E> codec;
+  private final Duration stallTimeout;
+
+  /**
+   * Creates a reader that reports the writer as stalled after 5 seconds, see
+   * {@link #SharedListReader(Path, ElementCodec, Duration)}.
+   */
+  public SharedListReader(Path file, ElementCodec<E> codec) {
+    this(file, codec, DEFAULT_STALL_TIMEOUT);
+  }
+
+  /**
+   * @param file the file of a writer.
+   * @param codec the codec the writer encodes elements with.
+   * @param stallTimeout how long a read waits for the writer to finish a change before reporting it as stalled.
+   * @throws IllegalStateException if the file has not been written by a writer.
+   */
+  public SharedListReader(Path file, ElementCodec<E> codec, Duration stallTimeout) {
+    this.codec = Objects.requireNonNull(codec);
+    if (stallTimeout.isNegative() || stallTimeout.isZero()) {
+      throw new IllegalArgumentException("stallTimeout MUST be positive");
+    }
+    this.file = file;
+    this.stallTimeout = stallTimeout;
+    this.buffer = SharedLayout.map(file, MapMode.READ_ONLY, -1, StandardOpenOption.READ);
+    SharedLayout.check(file, buffer);
+  }
+
+  /**
+   * @return a number that changes whenever the writer changes the list, so a poller can skip reads when nothing has changed.
+   */
+  public long version() {
+    return (long) LONGS.getAcquire(buffer, SEQUENCE) & ~1L;
+  }
+
+  public int size() {
+    return read(() -> buffer.getInt(SIZE));
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public boolean contains(Object o) {
+    Objects.requireNonNull(o);
+    return read(() -> find(buffer, codec, o) >= 0);
+  }
+
+  /**
+   * @return the element in the list equal to o, or null if there is none.
+   */
+  public E get(Object o) {
+    Objects.requireNonNull(o);
+    return read(() -> {
+      int slot = find(buffer, codec, o);
+      return slot >= 0 ? element(buffer, buffer.getInt(slot(slot)), codec) : null;
+    });
+  }
+
+  /**
+   * @return the element linked after the given one, or null if it is the tail.
+   * @throws NoSuchElementException if the element is not in the list.
+   */
+  public E next(E e) {
+    Objects.requireNonNull(e);
+    return read(() -> {
+      int slot = find(buffer, codec, e);
+      if (slot < 0) {
+        throw new NoSuchElementException("[" + e + "] is not in the list");
+      }
+      int next = buffer.getInt(buffer.getInt(slot(slot)) + NEXT);
+      return next != NONE ? element(buffer, next, codec) : null;
+    });
+  }
+
+  /**
+   * @return the element at the head of the list, or null if the list is empty.
+   */
+  public E peekHead() {
+    return read(() -> {
+      int head = buffer.getInt(HEAD);
+      return head != NONE ? element(buffer, head, codec) : null;
+    });
+  }
+
+  /**
+   * @return the element at the tail of the list, or null if the list is empty.
+   */
+  public E peekTail() {
+    return read(() -> {
+      int tail = buffer.getInt(TAIL);
+      return tail != NONE ? element(buffer, tail, codec) : null;
+    });
+  }
+
+  /**
+   * @return a snapshot of every element in list order.
+   */
+  public List<E> elements() {
+    return read(() -> {
+      int size = buffer.getInt(SIZE);
+      List<E> elements = new ArrayList<>(size);
+      for (int offset = buffer.getInt(HEAD); offset != NONE; offset = buffer.getInt(offset + NEXT)) {
+        if (elements.size() == size) {
+          throw new IllegalStateException("The list is longer than its size " + size);
+        }
+        elements.add(element(buffer, offset, codec));
+      }
+      return elements;
+    });
+  }
+
+  /**
+   * @return an iterator over a snapshot of the list, see {@link #elements()}.
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return elements().iterator();
+  }
+
+  /**
+   * Runs a read until it completes without the writer changing the list part way through.
+   *
+   * @throws IllegalStateException if the writer has been part way through the same change for longer than the stall timeout.
+   */
+  private <T> T read(Supplier<T> query) {
+    // the odd sequence of the change being waited for and when it was first seen
+    long waitingFor = 0;
+    long since = 0;
+    while (true) {
+      long before = (long) LONGS.getAcquire(buffer, SEQUENCE);
+      if ((before & 1) != 0) {
+        if (before != waitingFor) {
+          waitingFor = before;
+          since = System.nanoTime();
+        } else if (System.nanoTime() - since > stallTimeout.toNanos()) {
+          throw new IllegalStateException("The writer of [" + file + "] has not finished a change in " + stallTimeout
+              + ", it has stalled or died");
+        }
+      } else {
+        try {
+          T result = query.get();
+          if (unchanged(before)) {
+            return result;
+          }
+        } catch (RuntimeException e) {
+          // a torn read can fail in any way, the failure only counts if the list did not change
+          if (unchanged(before)) {
+            throw e;
+          }
+        }
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  private boolean unchanged(long before) {
+    VarHandle.loadLoadFence();
+    return (long) LONGS.getVolatile(buffer, SEQUENCE) == before;
+  }
+}
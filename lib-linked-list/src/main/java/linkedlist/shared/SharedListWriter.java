@@ -0,0 +1,481 @@
+package linkedlist.shared;
+
+import static linkedlist.shared.SharedLayout.DATA_END;
+import static linkedlist.shared.SharedLayout.FORMAT;
+import static linkedlist.shared.SharedLayout.FORMAT_OFFSET;
+import static linkedlist.shared.SharedLayout.HASH;
+import static linkedlist.shared.SharedLayout.HEAD;
+import static linkedlist.shared.SharedLayout.INTS;
+import static linkedlist.shared.SharedLayout.LENGTH;
+import static linkedlist.shared.SharedLayout.LONGS;
+import static linkedlist.shared.SharedLayout.MAGIC;
+import static linkedlist.shared.SharedLayout.MAGIC_OFFSET;
+import static linkedlist.shared.SharedLayout.MAX_ELEMENTS;
+import static linkedlist.shared.SharedLayout.NEXT;
+import static linkedlist.shared.SharedLayout.NONE;
+import static linkedlist.shared.SharedLayout.PREV;
+import static linkedlist.shared.SharedLayout.RECORD_HEADER_BYTES;
+import static linkedlist.shared.SharedLayout.REMOVED;
+import static linkedlist.shared.SharedLayout.SEQUENCE;
+import static linkedlist.shared.SharedLayout.SIZE;
+import static linkedlist.shared.SharedLayout.SLOT_COUNT;
+import static linkedlist.shared.SharedLayout.TAIL;
+import static linkedlist.shared.SharedLayout.USED_SLOTS;
+import static linkedlist.shared.SharedLayout.dataStart;
+import static linkedlist.shared.SharedLayout.element;
+import static linkedlist.shared.SharedLayout.find;
+import static linkedlist.shared.SharedLayout.hash;
+import static linkedlist.shared.SharedLayout.slot;
+
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import linkedlist.ElementCodec;
+
+/**
+ * Writes a double linked list in to a memory mapped file so that processes on the same host can read it with a
+ * {@link SharedListReader}, without each holding its own copy on the heap.
+ * <br/>
+ * The operations follow {@link linkedlist.RandomAccessDoubleLinkedList}: elements are found in constant time through a hash table
+ * held in the file and relinked without moving them. Every change is made between two increments of a sequence number in the
+ * header, a seqlock, so readers never wait for the writer, they retry a read that overlapped a change. Removed records are not
+ * reused, when the file runs out of room the live records are compacted to the start of the data area, see {@link #compact()}.
+ * <br/>
+ * There must be one writer per file and it is not thread safe. Elements are found by {@code hashCode} and {@code equals} in the
+ * reading processes too, so both must depend on the element's value only. A writing process that restarts takes over its file
+ * with {@link #reopen(Path, ElementCodec)}, readers keep their mappings.
+ * <br/>
+ * The file stays mapped until the writer has been garbage collected, Java 17 has no way to unmap a file sooner.
+ *
+ * @param <E> the generic type of the elements.
+ */
+public final class SharedListWriter<E> {
+
+  private final MappedByteBuffer buffer;
+  private final ElementCodec<E> codec;
+  private final int maxElements;
+  private final int slotCount;
+  private long sequence;
+
+  /**
+   * Creates the file and maps it, the file must not exist so that readers of a previous writer are never left mapping a file that
+   * is being truncated.
+   *
+   * @param file the file to create.
+   * @param codec the codec of the elements.
+   * @param maxElements the most elements the list may hold.
+   * @param dataBytes the bytes available for records, each takes 16 bytes plus its encoded size rounded up to a multiple of 4.
+   */
+  public SharedListWriter(Path file, ElementCodec<E> codec, int maxElements, int dataBytes) {
+    if (maxElements < 1 || dataBytes < 1) {
+      throw new IllegalArgumentException("maxElements and dataBytes MUST be positive");
+    }
+    this.codec = Objects.requireNonNull(codec);
+    this.maxElements = maxElements;
+    // a power of two large enough that the table is at most three quarters full
+    this.slotCount = Integer.highestOneBit(maxElements + maxElements / 3) << 1;
+    long bytes = (long) dataStart(slotCount) + dataBytes;
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A shared list MUST be smaller than 2GB");
+    }
+    this.buffer = SharedLayout.map(file, MapMode.READ_WRITE, bytes, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    buffer.putInt(FORMAT_OFFSET, FORMAT);
+    buffer.putInt(MAX_ELEMENTS, maxElements);
+    buffer.putInt(SLOT_COUNT, slotCount);
+    buffer.putInt(DATA_END, dataStart(slotCount));
+    // published last so that a reader never sees a partly written header
+    INTS.setRelease(buffer, MAGIC_OFFSET, MAGIC);
+  }
+
+  private SharedListWriter(MappedByteBuffer buffer, ElementCodec<E> codec) {
+    this.buffer = buffer;
+    this.codec = codec;
+    this.maxElements = buffer.getInt(MAX_ELEMENTS);
+    this.slotCount = buffer.getInt(SLOT_COUNT);
+    this.sequence = (long) LONGS.getVolatile(buffer, SEQUENCE);
+    if ((sequence & 1) != 0) {
+      // the previous writer died part way through a change, readers keep waiting until the list has been rebuilt
+      try {
+        List<E> elements = salvage();
+        reset();
+        for (E e : elements) {
+          if (find(buffer, codec, e) < 0) {
+            link(record(e, codec.size(e)), buffer.getInt(TAIL), NONE);
+          }
+        }
+      } finally {
+        endWrite();
+      }
+    }
+  }
+
+  /**
+   * Takes over the file of a writer that is no longer running, for example after the writing process has restarted. Readers keep
+   * their mappings and carry on reading the list as the previous writer left it.
+   * <br/>
+   * If the previous writer died part way through a change, which readers report as a stalled writer, the list is rebuilt from the
+   * elements that can be followed from its head. The change that was being made may be lost, as may the elements not yet rewritten
+   * when the writer died compacting. The previous writer MUST have stopped, two writers of one file corrupt it.
+   *
+   * @param file the file of a previous writer.
+   * @param codec the codec the previous writer encoded elements with.
+   * @throws IllegalStateException if the file has not been written by a writer.
+   */
+  public static <E> SharedListWriter<E> reopen(Path file, ElementCodec<E> codec) {
+    Objects.requireNonNull(codec);
+    MappedByteBuffer buffer = SharedLayout.map(file, MapMode.READ_WRITE, -1, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    SharedLayout.check(file, buffer);
+    return new SharedListWriter<>(buffer, codec);
+  }
+
+  public int size() {
+    return buffer.getInt(SIZE);
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public boolean contains(Object o) {
+    return find(buffer, codec, o) >= 0;
+  }
+
+  /**
+   * Appends an element at the tail of the list.
+   *
+   * @throws IllegalArgumentException if an equal element is already in the list.
+   * @throws IllegalStateException if the list is full.
+   */
+  public boolean add(E e) {
+    beginWrite();
+    try {
+      int offset = allocate(e);
+      link(offset, buffer.getInt(TAIL), NONE);
+    } finally {
+      endWrite();
+    }
+    return true;
+  }
+
+  /**
+   * Inserts an element at the head of the list, see {@link #add(Object)}.
+   */
+  public void addFirst(E e) {
+    beginWrite();
+    try {
+      int offset = allocate(e);
+      link(offset, NONE, buffer.getInt(HEAD));
+    } finally {
+      endWrite();
+    }
+  }
+
+  /**
+   * Links an element directly after another, see {@link #add(Object)}.
+   *
+   * @throws IllegalArgumentException if after is not in the list.
+   */
+  public void insertAfter(E after, E item) {
+    beginWrite();
+    try {
+      prepare(item);
+      int afterOffset = offsetOf(after);
+      int offset = allocate(item);
+      link(offset, afterOffset, buffer.getInt(afterOffset + NEXT));
+    } finally {
+      endWrite();
+    }
+  }
+
+  /**
+   * Replaces an element keeping its position, in place when the new element encodes to the same number of bytes.
+   *
+   * @throws IllegalArgumentException if was is not in the list.
+   */
+  public void replace(E was, E item) {
+    beginWrite();
+    try {
+      prepare(item);
+      int slot = find(buffer, codec, was);
+      if (slot < 0) {
+        throw new IllegalArgumentException("Could not find list node for [" + was + "]");
+      }
+      if (!item.equals(was) && contains(item)) {
+        throw new IllegalArgumentException("[" + item + "] is already in the list");
+      }
+      int old = buffer.getInt(slot(slot));
+      buffer.putInt(slot(slot), REMOVED);
+      int size = codec.size(item);
+      if (size == buffer.getInt(old + LENGTH)) {
+        buffer.putInt(old + HASH, hash(item));
+        codec.encode(item, buffer.slice(old + RECORD_HEADER_BYTES, size));
+        index(old);
+      } else {
+        int offset = record(item, size);
+        link(offset, buffer.getInt(old + PREV), buffer.getInt(old + NEXT));
+        buffer.putInt(SIZE, buffer.getInt(SIZE) - 1);
+      }
+    } finally {
+      endWrite();
+    }
+  }
+
+  public boolean remove(Object o) {
+    int slot = find(buffer, codec, o);
+    if (slot < 0) {
+      return false;
+    }
+    beginWrite();
+    try {
+      int offset = buffer.getInt(slot(slot));
+      buffer.putInt(slot(slot), REMOVED);
+      unlink(offset);
+      buffer.putInt(SIZE, buffer.getInt(SIZE) - 1);
+    } finally {
+      endWrite();
+    }
+    return true;
+  }
+
+  /**
+   * Relinks an element at the head of the list in constant time.
+   *
+   * @return false if the element is not in the list.
+   */
+  public boolean moveToHead(E e) {
+    int slot = find(buffer, codec, e);
+    if (slot < 0) {
+      return false;
+    }
+    int offset = buffer.getInt(slot(slot));
+    if (offset == buffer.getInt(HEAD)) {
+      return true;
+    }
+    beginWrite();
+    try {
+      unlink(offset);
+      buffer.putInt(offset + PREV, NONE);
+      buffer.putInt(offset + NEXT, buffer.getInt(HEAD));
+      buffer.putInt(buffer.getInt(HEAD) + PREV, offset);
+      buffer.putInt(HEAD, offset);
+    } finally {
+      endWrite();
+    }
+    return true;
+  }
+
+  /**
+   * @return the element at the tail of the list, or null if the list is empty.
+   */
+  public E peekTail() {
+    int tail = buffer.getInt(TAIL);
+    return tail != NONE ? element(buffer, tail, codec) : null;
+  }
+
+  /**
+   * Removes and returns the element at the tail of the list.
+   *
+   * @return the removed element, or null if the list is empty.
+   */
+  public E pollTail() {
+    E tail = peekTail();
+    if (tail != null) {
+      remove(tail);
+    }
+    return tail;
+  }
+
+  /**
+   * @return every element in list order, decoded on to the heap.
+   */
+  public List<E> elements() {
+    List<E> elements = new ArrayList<>(size());
+    for (int offset = buffer.getInt(HEAD); offset != NONE; offset = buffer.getInt(offset + NEXT)) {
+      elements.add(element(buffer, offset, codec));
+    }
+    return elements;
+  }
+
+  public void clear() {
+    beginWrite();
+    try {
+      reset();
+    } finally {
+      endWrite();
+    }
+  }
+
+  /**
+   * Rewrites the live records in list order at the start of the data area, reclaiming the space of removed and replaced records.
+   * This happens by itself when a record does not fit, readers retry for as long as it takes.
+   *
+   * @return the number of bytes reclaimed.
+   */
+  public int compact() {
+    beginWrite();
+    try {
+      return compacted();
+    } finally {
+      endWrite();
+    }
+  }
+
+  /**
+   * Writes the element to a new record and adds it to the hash table, the caller links it.
+   */
+  private int allocate(E e) {
+    if (size() >= maxElements) {
+      throw new IllegalStateException("The shared list is full, it holds " + maxElements + " elements");
+    }
+    prepare(e);
+    if (contains(e)) {
+      throw new IllegalArgumentException("[" + e + "] is already in the list");
+    }
+    return record(e, codec.size(e));
+  }
+
+  /**
+   * Makes room for a new record and a hash table slot, before any offset is looked up as compacting moves records.
+   */
+  private void prepare(E e) {
+    if (buffer.getInt(USED_SLOTS) >= slotCount - slotCount / 4) {
+      rehash();
+    }
+    if (!fits(codec.size(e)) && (compacted() == 0 || !fits(codec.size(e)))) {
+      throw new IllegalStateException("The shared list is full, there is no room for [" + e + "]");
+    }
+  }
+
+  private boolean fits(int size) {
+    return (long) buffer.getInt(DATA_END) + recordBytes(size) <= buffer.capacity();
+  }
+
+  private static int recordBytes(int size) {
+    return (RECORD_HEADER_BYTES + size + 3) & ~3;
+  }
+
+  private int record(E e, int size) {
+    int offset = buffer.getInt(DATA_END);
+    buffer.putInt(offset + HASH, hash(e));
+    buffer.putInt(offset + LENGTH, size);
+    codec.encode(e, buffer.slice(offset + RECORD_HEADER_BYTES, size));
+    buffer.putInt(DATA_END, offset + recordBytes(size));
+    index(offset);
+    return offset;
+  }
+
+  private void index(int offset) {
+    int mask = slotCount - 1;
+    int i = buffer.getInt(offset + HASH) & mask;
+    while (buffer.getInt(slot(i)) != NONE && buffer.getInt(slot(i)) != REMOVED) {
+      i = (i + 1) & mask;
+    }
+    if (buffer.getInt(slot(i)) == NONE) {
+      buffer.putInt(USED_SLOTS, buffer.getInt(USED_SLOTS) + 1);
+    }
+    buffer.putInt(slot(i), offset);
+  }
+
+  private int offsetOf(E e) {
+    int slot = find(buffer, codec, e);
+    if (slot < 0) {
+      throw new IllegalArgumentException("Could not find list node for [" + e + "]");
+    }
+    return buffer.getInt(slot(slot));
+  }
+
+  private void link(int offset, int prev, int next) {
+    buffer.putInt(offset + PREV, prev);
+    buffer.putInt(offset + NEXT, next);
+    buffer.putInt(prev != NONE ? prev + NEXT : HEAD, offset);
+    buffer.putInt(next != NONE ? next + PREV : TAIL, offset);
+    buffer.putInt(SIZE, buffer.getInt(SIZE) + 1);
+  }
+
+  private void unlink(int offset) {
+    int prev = buffer.getInt(offset + PREV);
+    int next = buffer.getInt(offset + NEXT);
+    buffer.putInt(prev != NONE ? prev + NEXT : HEAD, next);
+    buffer.putInt(next != NONE ? next + PREV : TAIL, prev);
+  }
+
+  /**
+   * Rebuilds the hash table from the list, dropping the markers of removed records.
+   */
+  private void rehash() {
+    clearSlots();
+    for (int offset = buffer.getInt(HEAD); offset != NONE; offset = buffer.getInt(offset + NEXT)) {
+      index(offset);
+    }
+  }
+
+  private int compacted() {
+    int before = buffer.getInt(DATA_END);
+    List<E> elements = elements();
+    reset();
+    for (E e : elements) {
+      link(record(e, codec.size(e)), buffer.getInt(TAIL), NONE);
+    }
+    return before - buffer.getInt(DATA_END);
+  }
+
+  /**
+   * @return the elements of whole records that can be followed from the head, stopping at the first link a dead writer left
+   *     pointing outside the records or back in to the chain.
+   */
+  private List<E> salvage() {
+    List<E> elements = new ArrayList<>();
+    Set<Integer> visited = new HashSet<>();
+    int dataEnd = Math.min(buffer.getInt(DATA_END), buffer.capacity());
+    int offset = buffer.getInt(HEAD);
+    while (offset != NONE && elements.size() < maxElements && visited.add(offset)) {
+      if (offset < dataStart(slotCount) || offset > dataEnd - RECORD_HEADER_BYTES || (offset & 3) != 0) {
+        break;
+      }
+      int length = buffer.getInt(offset + LENGTH);
+      if (length < 0 || length > dataEnd - offset - RECORD_HEADER_BYTES) {
+        break;
+      }
+      try {
+        elements.add(element(buffer, offset, codec));
+      } catch (RuntimeException e) {
+        break;
+      }
+      offset = buffer.getInt(offset + NEXT);
+    }
+    return elements;
+  }
+
+  private void reset() {
+    clearSlots();
+    buffer.putInt(HEAD, NONE);
+    buffer.putInt(TAIL, NONE);
+    buffer.putInt(SIZE, 0);
+    buffer.putInt(DATA_END, dataStart(slotCount));
+  }
+
+  private void clearSlots() {
+    for (int i = 0; i < slotCount; i++) {
+      buffer.putInt(slot(i), NONE);
+    }
+    buffer.putInt(USED_SLOTS, 0);
+  }
+
+  private void beginWrite() {
+    LONGS.setOpaque(buffer, SEQUENCE, ++sequence);
+    // the odd sequence must be visible before any of the changes
+    VarHandle.storeStoreFence();
+  }
+
+  private void endWrite() {
+    LONGS.setRelease(buffer, SEQUENCE, ++sequence);
+  }
+}
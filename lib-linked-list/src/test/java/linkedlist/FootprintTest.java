@@ -0,0 +1,97 @@
+package linkedlist;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.lang.ref.Reference;
+import java.util.HashMap;
+import java.util.function.Supplier;
+import linkedlist.partitioned.DoubleLinkedList;
+import linkedlist.partitioned.FixedWidthPartitionIndexFactory;
+import linkedlist.partitioned.Indexed;
+import linkedlist.partitioned.PartitionedLinkedList;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Reports the heap used per element by each list, excluding the elements themselves, so that footprint regressions are caught.
+ *
+ * The heap is measured after a full collection before and after the list is populated, run with {@code gradle footprint}.
+ */
+@Tag("footprint")
+class FootprintTest {
+
+  record Sample(long value) implements Indexed<Long> {
+    @Override
+    public Long index() {
+      return value;
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1_000_000, 10_000_000})
+  void randomAccessDoubleLinkedList(int count) {
+    double bytes = measure("RandomAccessDoubleLinkedList", count, RandomAccessDoubleLinkedList::new, RandomAccessDoubleLinkedList::add);
+    assertTrue(bytes < 76, "bytes per element " + bytes);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1_000_000, 10_000_000})
+  void doubleLinkedList(int count) {
+    double bytes = measure("DoubleLinkedList", count, () -> new DoubleLinkedList<Sample>(new HashMap<>()), DoubleLinkedList::add);
+    assertTrue(bytes < 76, "bytes per element " + bytes);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1_000_000, 10_000_000})
+  void compactDoubleLinkedList(int count) {
+    double bytes = measure("DoubleLinkedList (compact)", count, () -> new DoubleLinkedList<Sample>(new HashMap<>(), e -> true), DoubleLinkedList::add);
+    assertTrue(bytes < 68, "bytes per element " + bytes);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1_000_000, 10_000_000})
+  void partitionedLinkedList(int count) {
+    double bytes = measure("PartitionedLinkedList", count,
+        () -> new PartitionedLinkedList<Long, Sample>(FixedWidthPartitionIndexFactory.of(0, 86_400)), PartitionedLinkedList::add);
+    assertTrue(bytes < 76, "bytes per element " + bytes);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1_000_000, 10_000_000})
+  void compactPartitionedLinkedList(int count) {
+    double bytes = measure("PartitionedLinkedList (compact)", count,
+        () -> new PartitionedLinkedList<Long, Sample>(FixedWidthPartitionIndexFactory.of(0, 86_400), ListOption.COMPACT_NODES),
+        PartitionedLinkedList::add);
+    assertTrue(bytes < 72, "bytes per element " + bytes);
+  }
+
+  private <L> double measure(String name, int count, Supplier<L> factory, ListAdd<L> add) {
+    Sample[] samples = new Sample[count];
+    for (int i = 0; i < count; i++) {
+      samples[i] = new Sample(i);
+    }
+    long before = usedHeap();
+    L list = factory.get();
+    for (Sample sample : samples) {
+      add.add(list, sample);
+    }
+    long after = usedHeap();
+    Reference.reachabilityFence(list);
+    Reference.reachabilityFence(samples);
+    double bytes = (after - before) / (double) count;
+    System.out.printf("%-35s %,12d elements %8.2f bytes per element%n", name, count, bytes);
+    return bytes;
+  }
+
+  interface ListAdd<L> {
+    void add(L list, Sample sample);
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,92 @@
+package linkedlist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FrozenListTest {
+
+  // every key shares a hash code so the perfect hash can not be built
+  record Colliding(int value) {
+    @Override
+    public int hashCode() {
+      return 42;
+    }
+  }
+
+  @Test
+  void perfectHash() {
+    RandomAccessDoubleLinkedList<String> list = new RandomAccessDoubleLinkedList<>();
+    for (int i = 0; i < 10_000; i++) {
+      list.add("item-" + i);
+    }
+    FrozenList<String> frozen = list.freeze();
+    assertTrue(frozen.perfect());
+    assertEquals(10_000, frozen.size());
+    for (int i = 0; i < 10_000; i++) {
+      assertEquals(i, frozen.indexOf("item-" + i));
+      assertEquals("item-" + i, frozen.get(i));
+    }
+    assertFalse(frozen.contains("item-10000"));
+    assertFalse(frozen.contains(null));
+    assertThrows(UnsupportedOperationException.class, () -> frozen.add("item"));
+    assertThrows(IndexOutOfBoundsException.class, () -> frozen.get(10_000));
+
+    // the frozen copy does not follow the list
+    list.remove("item-5");
+    assertTrue(frozen.contains("item-5"));
+    assertEquals(List.of("item-3", "item-4", "item-5"), frozen.subList(3, 6));
+
+    RandomAccessDoubleLinkedList<String> thawed = frozen.thaw();
+    assertEquals(10_000, thawed.size());
+    thawed.remove("item-0");
+    assertEquals("item-1", thawed.iterator().next());
+    assertTrue(new FrozenList<String>(List.of()).isEmpty());
+    assertEquals(-1, new FrozenList<String>(List.of()).indexOf("item"));
+  }
+
+  @Test
+  void perfectHashAtScale() {
+    List<String> elements = new ArrayList<>();
+    for (int i = 0; i < 1_000_000; i++) {
+      elements.add("item-" + i);
+    }
+    FrozenList<String> frozen = new FrozenList<>(elements);
+    assertTrue(frozen.perfect());
+    for (int i = 0; i < 1_000_000; i++) {
+      assertEquals(i, frozen.indexOf(elements.get(i)));
+    }
+    for (int i = 1_000_000; i < 1_100_000; i++) {
+      assertEquals(-1, frozen.indexOf("item-" + i));
+    }
+  }
+
+  @Test
+  void collidingHashes() {
+    List<Colliding> elements = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      elements.add(new Colliding(i));
+    }
+    FrozenList<Colliding> frozen = new FrozenList<>(elements);
+    assertFalse(frozen.perfect());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, frozen.indexOf(new Colliding(i)));
+    }
+    assertEquals(-1, frozen.indexOf(new Colliding(100)));
+  }
+
+  @Test
+  void identityKeys() {
+    String one = new String("one");
+    String other = new String("one");
+    FrozenList<String> frozen = new FrozenList<>(List.of(one, "two"), ListOption.IDENTITY_KEYS);
+    assertEquals(0, frozen.indexOf(one));
+    assertEquals(-1, frozen.indexOf(other));
+    assertTrue(frozen.thaw().contains(one));
+    assertFalse(frozen.thaw().contains(other));
+  }
+}
@@ -0,0 +1,79 @@
+package linkedlist;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IntLinkedListTest {
+
+  private IntLinkedList list = new IntLinkedList();
+
+  @Test
+  void insertReplaceRemove() {
+    list.add(1);
+    list.add(2);
+    list.insertAfter(1, 3);
+    assertArrayEquals(new int[] {1, 3, 2}, list.toArray());
+
+    list.replace(1, 4);
+    assertFalse(list.contains(1));
+    assertArrayEquals(new int[] {4, 3, 2}, list.toArray());
+
+    assertTrue(list.remove(3));
+    assertFalse(list.remove(3));
+    assertArrayEquals(new int[] {4, 2}, list.toArray());
+
+    PrimitiveIterator.OfInt itr = list.iterator(2);
+    assertEquals(2, itr.nextInt());
+    assertFalse(itr.hasNext());
+  }
+
+  @Test
+  void rejectsDuplicatesAndMissing() {
+    list.add(1);
+    assertFalse(list.add(1));
+    assertEquals(1, list.size());
+    assertThrows(IllegalArgumentException.class, () -> list.insertAfter(2, 3));
+    assertThrows(IllegalArgumentException.class, () -> list.insertAfter(1, 1));
+    assertThrows(IllegalArgumentException.class, () -> list.replace(2, 3));
+    assertThrows(IllegalArgumentException.class, () -> list.iterator(2));
+  }
+
+  @Test
+  void matchesReferenceList() {
+    // random operations checked against a java.util.List, enough to grow the arrays and churn the hash table
+    Random random = new Random(7);
+    List<Integer> reference = new ArrayList<>();
+    for (int i = 0; i < 50_000; i++) {
+      int value = random.nextInt(5_000) * 0x10001;
+      int op = random.nextInt(4);
+      if (op == 0 && !reference.isEmpty() && !reference.contains(value)) {
+        int after = reference.get(random.nextInt(reference.size()));
+        list.insertAfter(after, value);
+        reference.add(reference.indexOf(after) + 1, value);
+      } else if (op == 1 && reference.contains(value)) {
+        assertTrue(list.remove(value));
+        reference.remove((Integer) value);
+      } else if (op == 2 && !reference.isEmpty() && !reference.contains(value)) {
+        int position = random.nextInt(reference.size());
+        list.replace(reference.get(position), value);
+        reference.set(position, value);
+      } else {
+        assertEquals(!reference.contains(value), list.add(value));
+        if (!reference.contains(value)) {
+          reference.add(value);
+        }
+      }
+    }
+    assertEquals(reference.size(), list.size());
+    assertArrayEquals(reference.stream().mapToInt(Integer::intValue).toArray(), list.toArray());
+    reference.forEach(v -> assertTrue(list.contains(v)));
+  }
+}
@@ -0,0 +1,51 @@
+package linkedlist;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The links and hash table are shared with {@link IntLinkedList} and tested there, this covers values beyond the int range.
+ */
+class LongLinkedListTest {
+
+  private LongLinkedList list = new LongLinkedList();
+
+  @Test
+  void valuesDifferingInTheHighBits() {
+    long high = 1L << 32;
+    list.add(1);
+    list.add(1 + high);
+    list.insertAfter(1, 1 + 2 * high);
+    assertArrayEquals(new long[] {1, 1 + 2 * high, 1 + high}, list.toArray());
+    assertFalse(list.add(1 + high));
+
+    list.replace(1 + high, Long.MAX_VALUE);
+    assertFalse(list.contains(1 + high));
+    assertTrue(list.remove(1 + 2 * high));
+    assertEquals(Long.MAX_VALUE, list.last());
+    PrimitiveIterator.OfLong itr = list.iterator(1);
+    assertEquals(1, itr.nextLong());
+    assertEquals(Long.MAX_VALUE, itr.nextLong());
+    assertFalse(itr.hasNext());
+    assertEquals("LongLinkedList: [1, " + Long.MAX_VALUE + "]", list.toString());
+  }
+
+  @Test
+  void growsWithWideValues() {
+    // only the high 32 bits vary so every value would share a slot if the hash ignored them
+    long[] values = LongStream.range(0, 20_000).map(i -> i << 32).toArray();
+    for (long value : values) {
+      assertTrue(list.add(value));
+    }
+    for (int i = 0; i < values.length; i += 2) {
+      assertTrue(list.remove(values[i]));
+    }
+    assertEquals(10_000, list.size());
+    assertArrayEquals(LongStream.range(0, 10_000).map(i -> (2 * i + 1) << 32).toArray(), list.toArray());
+  }
+}
@@ -1,11 +1,17 @@
 package linkedlist;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 public class RandomAccessDoubleLinkedListTest {
@@ -69,5 +75,180 @@ public class RandomAccessDoubleLinkedListTest {
     assertEquals("2", itr.next().id());
   }
 
+  // an element with expensive, or in this case unusable, equality
+  static class Opaque {
+    final String id;
 
+    Opaque(String id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int hashCode() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  @Test
+  void identityKeys() {
+    RandomAccessDoubleLinkedList<Opaque> list = new RandomAccessDoubleLinkedList<>(ListOption.IDENTITY_KEYS);
+    Opaque one = new Opaque("1");
+    Opaque two = new Opaque("2");
+    Opaque three = new Opaque("3");
+    list.add(one);
+    list.add(two);
+    list.insertAfter(one, three);
+
+    assertTrue(list.contains(three));
+    assertFalse(list.contains(new Opaque("3")));
+    assertSame(two, list.get(two));
+
+    Opaque four = new Opaque("4");
+    list.replace(one, four);
+    assertFalse(list.contains(one));
+    assertSame(four, list.iterator().next());
+
+    assertTrue(list.remove(three));
+    assertEquals(2, list.size());
+
+    // bulk removal matches by identity too
+    assertFalse(list.removeAll(List.of(new Opaque("2"))));
+    assertTrue(list.removeAll(List.of(two)));
+    assertFalse(list.retainAll(List.of(four)));
+    assertEquals(List.of(four), List.of(list.toArray()));
+  }
+
+  @Test
+  void replaceRange() {
+    RandomAccessDoubleLinkedList<String> list = new RandomAccessDoubleLinkedList<>();
+    list.addAll(List.of("a", "b", "c", "d"));
+    list.replace("a", "d", List.of("x", "y"));
+
+    assertEquals(4, list.size());
+    assertFalse(list.contains("b"));
+    assertEquals(List.of("a", "x", "y", "d"), List.of(list.toArray()));
+  }
+
+  @Test
+  void insertAfterTheTail() {
+    RandomAccessDoubleLinkedList<String> list = new RandomAccessDoubleLinkedList<>();
+    list.add("a");
+    list.insertAfter("a", "b");
+    assertEquals("b", list.peekTail());
+    list.add("c");
+    assertEquals(List.of("a", "b", "c"), List.of(list.toArray()));
+
+    assertEquals("c", list.pollTail());
+    assertEquals("b", list.pollTail());
+    assertEquals(List.of("a"), List.of(list.toArray()));
+  }
+
+  @Test
+  void bulkRemoval() {
+    RandomAccessDoubleLinkedList<Integer> list = new RandomAccessDoubleLinkedList<>();
+    for (int i = 0; i < 20; i++) {
+      list.add(i);
+    }
+
+    // runs at the head, middle and tail
+    assertTrue(list.removeIf(i -> i < 3 || (i > 7 && i < 12) || i > 16));
+    assertEquals(List.of(3, 4, 5, 6, 7, 12, 13, 14, 15, 16), List.of(list.toArray()));
+    assertFalse(list.removeIf(i -> i > 100));
+
+    assertTrue(list.retainAll(Set.of(4, 5, 13, 14)));
+    assertEquals(List.of(4, 5, 13, 14), List.of(list.toArray()));
+
+    assertTrue(list.removeAll(List.of(5, 13)));
+    assertFalse(list.removeAll(List.of(5, 13)));
+    assertEquals(List.of(4, 14), List.of(list.toArray()));
+    assertFalse(list.contains(5));
+
+    List<Integer> visited = new ArrayList<>();
+    list.forEach(visited::add);
+    assertEquals(List.of(4, 14), visited);
+    assertThrows(ConcurrentModificationException.class, () -> list.forEach(i -> list.remove(14)));
+
+    // a filter that throws part way leaves the list unchanged
+    list.add(20);
+    list.add(21);
+    assertThrows(IllegalStateException.class, () -> list.removeIf(i -> {
+      if (i == 21) {
+        throw new IllegalStateException();
+      }
+      return true;
+    }));
+    assertEquals(List.of(4, 20, 21), List.of(list.toArray()));
+    assertEquals(3, list.size());
+    assertTrue(list.contains(4));
+
+    list.removeIf(i -> true);
+    assertTrue(list.isEmpty());
+  }
+
+  @Test
+  void secondaryIndex() {
+    RandomAccessDoubleLinkedList<Event> list = new RandomAccessDoubleLinkedList<>();
+    Event first = new Event("a1", "promo");
+    list.add(first);
+    SecondaryIndex<String, Event> byAsset = list.addIndex(Event::assetId, SecondaryIndex.Type.HASH);
+    SecondaryIndex<String, Event> byType = list.addIndex(Event::eventType, SecondaryIndex.Type.SORTED);
+    list.add(new Event("a2", "programme"));
+    list.add(new Event("a3", "promo"));
+    list.insertAfter(first, new Event("a4", "advert"));
+
+    assertEquals(first, byAsset.first("a1"));
+    assertEquals(Set.of(first, new Event("a3", "promo")), byType.get("promo"));
+    assertEquals(List.of(new Event("a4", "advert"), new Event("a2", "programme")), byType.range("advert", "promo"));
+    assertThrows(UnsupportedOperationException.class, () -> byAsset.range("a", "b"));
+    // iterate on from an element found through the index
+    Iterator<Event> from = list.iterator(byAsset.first("a4"));
+    assertEquals("a4", from.next().assetId());
+    assertEquals("a2", from.next().assetId());
+
+    list.replace(first, new Event("a1", "advert"));
+    assertEquals(1, byType.get("promo").size());
+    assertEquals(2, byType.get("advert").size());
+    list.remove(new Event("a3", "promo"));
+    assertFalse(byType.containsKey("promo"));
+    list.removeIf(e -> e.assetId().equals("a2"));
+    assertTrue(byAsset.get("a2").isEmpty());
+    assertEquals("a4", list.pollTail().assetId());
+    assertEquals(1, byAsset.keyCount());
+    list.clear();
+    assertEquals(0, byType.keyCount());
+  }
+
+  @Test
+  void lazyIndex() {
+    RandomAccessDoubleLinkedList<String> list = new RandomAccessDoubleLinkedList<>(ListOption.LAZY_INDEX);
+    for (int i = 0; i < 1_000; i++) {
+      list.add("item-" + i);
+    }
+    list.addFirst("first");
+    assertEquals("item-999", list.pollTail());
+    assertTrue(list.removeIf(s -> s.endsWith("5")));
+    assertEquals(900, list.size());
+    assertEquals(900, list.toArray().length);
+
+    // the first keyed operation builds the index
+    assertTrue(list.contains("item-0"));
+    assertFalse(list.contains("item-5"));
+    list.insertAfter("first", "second");
+    assertTrue(list.remove("item-1"));
+    assertEquals(900, list.size());
+    Iterator<String> from = list.iterator("second");
+    assertEquals("second", from.next());
+    assertEquals("item-0", from.next());
+    assertEquals("item-2", from.next());
+
+    list.clear();
+    list.add("again");
+    assertEquals(1, list.size());
+    assertTrue(list.contains("again"));
+  }
 }
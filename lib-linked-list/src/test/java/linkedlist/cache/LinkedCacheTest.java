@@ -0,0 +1,141 @@
+package linkedlist.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import linkedlist.cache.LinkedCache.Policy;
+import org.junit.jupiter.api.Test;
+
+class LinkedCacheTest {
+
+  @Test
+  void leastRecentlyUsed() {
+    LinkedCache<Integer, String> cache = new LinkedCache<>(3);
+    cache.put(1, "one");
+    cache.put(2, "two");
+    cache.put(3, "three");
+    assertEquals("one", cache.get(1));
+    cache.put(4, "four");
+    assertNull(cache.get(2));
+    assertEquals("one", cache.get(1));
+    assertEquals("three", cache.get(3));
+    assertEquals("four", cache.get(4));
+    assertEquals(3, cache.size());
+    assertEquals(1, cache.stats().evictions());
+    assertEquals(4, cache.stats().hits());
+    assertEquals(1, cache.stats().misses());
+  }
+
+  @Test
+  void weighted() {
+    List<Integer> evicted = new ArrayList<>();
+    LinkedCache<Integer, String> cache = new LinkedCache<>(10, (k, v) -> v.length(), Policy.LRU, 1, (k, v) -> evicted.add(k));
+    cache.put(1, "aaaa");
+    cache.put(2, "bbbb");
+    cache.put(3, "cc");
+    assertEquals(10, cache.weightedSize());
+    cache.put(4, "ddddd");
+    assertEquals(List.of(1, 2), evicted);
+    assertEquals(7, cache.weightedSize());
+    assertEquals("cc", cache.put(3, "bb"));
+    assertEquals(8, cache.stats().evictedWeight());
+  }
+
+  @Test
+  void segmentedResistsScans() {
+    LinkedCache<Integer, Integer> cache = new LinkedCache<>(10, (k, v) -> 1, Policy.SEGMENTED_LRU, 1, null);
+    for (int i = 0; i < 5; i++) {
+      cache.put(i, i);
+      cache.get(i);
+    }
+    // a scan of one-off keys only churns the probation segment
+    for (int i = 100; i < 200; i++) {
+      cache.put(i, i);
+    }
+    for (int i = 0; i < 5; i++) {
+      assertEquals(i, cache.get(i));
+    }
+    assertEquals(10, cache.size());
+  }
+
+  @Test
+  void leastFrequentlyUsed() {
+    LinkedCache<Integer, Integer> cache = new LinkedCache<>(3, (k, v) -> 1, Policy.LFU, 1, null);
+    cache.put(1, 1);
+    cache.put(2, 2);
+    cache.put(3, 3);
+    cache.get(1);
+    cache.get(1);
+    cache.get(3);
+    cache.put(4, 4);
+    assertNull(cache.get(2));
+    cache.get(4);
+    cache.get(4);
+    cache.put(5, 5);
+    assertNull(cache.get(3));
+    assertEquals(1, cache.get(1));
+    assertEquals(4, cache.get(4));
+    assertEquals(5, cache.get(5));
+  }
+
+  @Test
+  void removeAndInvalidate() {
+    for (Policy policy : Policy.values()) {
+      LinkedCache<Integer, Integer> cache = new LinkedCache<>(100, (k, v) -> 1, policy, 4, null);
+      for (int i = 0; i < 50; i++) {
+        cache.put(i, i);
+        cache.get(i % 7);
+      }
+      assertEquals(7, cache.remove(7));
+      assertNull(cache.remove(7));
+      assertEquals(49, cache.size());
+      cache.invalidateAll();
+      assertEquals(0, cache.size());
+      assertEquals(0, cache.weightedSize());
+      cache.put(1, 1);
+      assertEquals(1, cache.get(1));
+    }
+  }
+
+  @Test
+  void concurrent() throws Exception {
+    for (Policy policy : Policy.values()) {
+      LinkedCache<Integer, Integer> cache = new LinkedCache<>(512, (k, v) -> 1, policy, 8, null);
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+          futures.add(executor.submit(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 20_000; i++) {
+              int key = random.nextInt(2048);
+              Integer value = cache.get(key);
+              if (value == null) {
+                cache.put(key, key);
+              } else {
+                assertEquals(key, value);
+              }
+              if (i % 100 == 0) {
+                cache.remove(random.nextInt(2048));
+              }
+            }
+          }));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } finally {
+        executor.shutdown();
+      }
+      assertTrue(cache.size() <= 512);
+      assertEquals(cache.size(), cache.weightedSize());
+    }
+  }
+}
@@ -1,10 +1,16 @@
 package linkedlist.partitioned;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Set;
+import linkedlist.ListOption;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -73,4 +79,82 @@ class DoubleLinkedListTest {
     assertEquals("two", itr2.next());
     assertEquals("three", itr2.next());
   }
+
+  @Test
+  void remove() {
+    list.add("three");
+
+    assertTrue(list.remove("two"));
+    assertFalse(list.remove("two"));
+    assertFalse(list.remove("four"));
+
+    assertEquals(2, list.size());
+    Iterator<String> itr = list.iterator();
+    assertEquals("one", itr.next());
+    assertEquals("three", itr.next());
+    assertFalse(itr.hasNext());
+
+    assertTrue(list.remove("one"));
+    assertTrue(list.remove("three"));
+    assertTrue(list.isEmpty());
+  }
+
+  @Test
+  void bulkRemoval() {
+    list.addAll(List.of("three", "four", "five", "six"));
+
+    assertTrue(list.removeIf(s -> s.startsWith("t")));
+    assertEquals(List.of("one", "four", "five", "six"), List.of(list.toArray()));
+    assertFalse(list.removeIf(s -> s.isEmpty()));
+
+    assertTrue(list.retainAll(Set.of("one", "five", "six")));
+    assertTrue(list.removeAll(List.of("six")));
+    assertEquals(List.of("one", "five"), List.of(list.toArray()));
+    assertEquals(2, list.size());
+    assertFalse(list.contains("six"));
+
+    List<String> visited = new ArrayList<>();
+    list.forEach(visited::add);
+    assertEquals(List.of("one", "five"), visited);
+
+    // a filter that throws part way leaves the list unchanged
+    assertThrows(IllegalStateException.class, () -> list.removeIf(s -> {
+      if (s.equals("five")) {
+        throw new IllegalStateException();
+      }
+      return true;
+    }));
+    assertEquals(List.of("one", "five"), List.of(list.toArray()));
+    assertEquals(2, list.size());
+    assertTrue(list.contains("one"));
+  }
+
+  @Test
+  void clear() {
+    list.clear();
+    assertTrue(list.isEmpty());
+    assertFalse(list.contains("one"));
+    assertFalse(list.iterator().hasNext());
+    list.add("three");
+    assertEquals(List.of("three"), List.of(list.toArray()));
+  }
+
+  @Test
+  void lazyIndex() {
+    DoubleLinkedList<String> lazy = new DoubleLinkedList<>(ListOption.LAZY_INDEX);
+    lazy.addAll(List.of("one", "two", "three", "four"));
+    lazy.removeIf(s -> s.startsWith("f"));
+    ListIterator<String> itr = lazy.listIterator();
+    itr.next();
+    itr.add("five");
+    assertEquals(List.of("one", "five", "two", "three"), List.of(lazy.toArray()));
+
+    assertTrue(lazy.contains("five"));
+    assertFalse(lazy.contains("four"));
+    assertEquals("two", lazy.get("two"));
+    assertTrue(lazy.remove("one"));
+    lazy.add("six");
+    assertEquals("six", lazy.get("six"));
+    assertEquals(4, lazy.size());
+  }
 }
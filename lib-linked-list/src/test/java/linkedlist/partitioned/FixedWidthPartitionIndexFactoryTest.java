@@ -0,0 +1,59 @@
+package linkedlist.partitioned;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class FixedWidthPartitionIndexFactoryTest {
+
+  private FixedWidthPartitionIndexFactory<LocalDateTime> daily =
+      FixedWidthPartitionIndexFactory.of(LocalDateTime.of(2022, 1, 1, 6, 0), Duration.ofHours(24));
+
+  @Test
+  void slot() {
+    assertEquals(0, daily.slot(LocalDateTime.of(2022, 1, 1, 6, 0)));
+    assertEquals(0, daily.slot(LocalDateTime.of(2022, 1, 2, 5, 59)));
+    assertEquals(1, daily.slot(LocalDateTime.of(2022, 1, 2, 6, 0)));
+    assertEquals(-1, daily.slot(LocalDateTime.of(2022, 1, 1, 5, 59)));
+  }
+
+  @Test
+  void beforeStartOfDay() {
+    PartitionIndex<LocalDateTime> index = daily.newPartitionIndex(0, LocalDateTime.of(2022, 3, 10, 3, 0));
+    assertEquals(LocalDateTime.of(2022, 3, 9, 6, 0), index.min());
+    assertEquals(LocalDateTime.of(2022, 3, 10, 6, 0).minusNanos(1), index.max());
+  }
+
+  @Test
+  void adjacentPartitionsDoNotOverlap() {
+    FixedWidthPartitionIndexFactory<Long> tens = FixedWidthPartitionIndexFactory.of(0, 10);
+    assertEquals(new PartitionIndex<>(10L, 19L), tens.newPartitionIndex(0, 19L));
+    assertEquals(new PartitionIndex<>(20L, 29L), tens.newPartitionIndex(0, 20L));
+    assertEquals(new PartitionIndex<>(-10L, -1L), tens.newPartitionIndex(0, -1L));
+  }
+
+  @Test
+  void maxPartitions() {
+    FixedWidthPartitionIndexFactory<Long> limited =
+        new FixedWidthPartitionIndexFactory<>(0L, 10, FixedWidthPartitionIndexFactory.Scale.LONG, 2);
+    assertThrows(IllegalStateException.class, () -> limited.newPartitionIndex(2, 5L));
+  }
+
+  @Test
+  void equality() {
+    assertEquals(FixedWidthPartitionIndexFactory.of(0, 10), FixedWidthPartitionIndexFactory.of(0, 10));
+    assertEquals(FixedWidthPartitionIndexFactory.of(0, 10).hashCode(), FixedWidthPartitionIndexFactory.of(0, 10).hashCode());
+    assertEquals(FixedWidthPartitionIndexFactory.of(0, 10),
+        new FixedWidthPartitionIndexFactory<>(0L, 10, FixedWidthPartitionIndexFactory.Scale.LONG, 2));
+    assertNotEquals(FixedWidthPartitionIndexFactory.of(0, 10), FixedWidthPartitionIndexFactory.of(0, 20));
+    assertNotEquals(FixedWidthPartitionIndexFactory.of(0, 10), FixedWidthPartitionIndexFactory.of(1, 10));
+  }
+
+  @Test
+  void badWidth() {
+    assertThrows(IllegalArgumentException.class, () -> FixedWidthPartitionIndexFactory.of(0, 1));
+  }
+}
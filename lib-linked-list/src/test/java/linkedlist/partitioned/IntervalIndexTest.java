@@ -0,0 +1,112 @@
+package linkedlist.partitioned;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import linkedlist.partitioned.IntervalIndex.Gap;
+import org.junit.jupiter.api.Test;
+
+class IntervalIndexTest {
+
+  record Sequence(LocalDateTime index, LocalDateTime end) implements Scheduled<LocalDateTime> {
+  }
+
+  record Span(long start, long finish) implements Scheduled<Long> {
+    @Override
+    public Long index() {
+      return start;
+    }
+
+    @Override
+    public Long end() {
+      return finish;
+    }
+  }
+
+  @Test
+  void overlapsAndGaps() {
+    LocalDateTime start = LocalDateTime.of(2022, 1, 1, 6, 0);
+    PartitionedLinkedList<LocalDateTime, Sequence> schedule =
+        new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(start, Duration.ofHours(24)));
+    List<Sequence> sequences = new ArrayList<>();
+    for (int i = 0; i < 96; i++) {
+      Sequence sequence = new Sequence(start.plusMinutes(i * 30), start.plusMinutes(i * 30 + 30));
+      sequences.add(sequence);
+      schedule.add(sequence);
+    }
+    IntervalIndex<LocalDateTime, Sequence> index =
+        schedule.addIntervalIndex(Sequence::end, (a, b) -> Duration.between(a, b).toMinutes());
+
+    assertEquals(List.of(sequences.get(0), sequences.get(1)), index.overlapping(start.plusMinutes(10), start.plusMinutes(31)));
+    // back to back sequences do not overlap
+    assertTrue(index.overlapping(sequences.get(5)).isEmpty());
+    assertTrue(index.gapsLongerThan(0).isEmpty());
+
+    // an overrunning sequence overlaps the following one
+    Sequence overrun = new Sequence(sequences.get(10).index(), sequences.get(10).end().plusMinutes(5));
+    schedule.moveTo(sequences.get(10), overrun);
+    assertEquals(List.of(sequences.get(11)), index.overlapping(overrun));
+
+    // removing sequences leaves gaps, across the partition boundary too
+    schedule.linkedList(sequences.get(20)).remove(sequences.get(20));
+    schedule.linkedList(sequences.get(47)).remove(sequences.get(47));
+    schedule.linkedList(sequences.get(48)).remove(sequences.get(48));
+    assertEquals(List.of(new Gap<>(sequences.get(20).index(), sequences.get(20).end(), 30),
+        new Gap<>(sequences.get(47).index(), sequences.get(48).end(), 60)), index.gapsLongerThan(0));
+    assertEquals(List.of(new Gap<>(sequences.get(47).index(), sequences.get(48).end(), 60)), index.gapsLongerThan(30));
+
+    schedule.add(sequences.get(20));
+    assertEquals(1, index.gapsLongerThan(0).size());
+    assertEquals(94, index.size());
+  }
+
+  @Test
+  void matchesBruteForce() {
+    Random random = new Random(7);
+    PartitionedLinkedList<Long, Span> list = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 100));
+    IntervalIndex<Long, Span> index = list.addIntervalIndex(Span::end, (a, b) -> b - a);
+    List<Span> spans = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      if (spans.isEmpty() || random.nextInt(3) > 0) {
+        long start = random.nextInt(1_000);
+        Span span = new Span(start, start + 1 + random.nextInt(20));
+        if (!spans.contains(span)) {
+          spans.add(span);
+          list.add(span);
+        }
+      } else {
+        Span span = spans.remove(random.nextInt(spans.size()));
+        list.linkedList(span).remove(span);
+      }
+      if (i % 100 == 0) {
+        long from = random.nextInt(1_000);
+        long to = from + 1 + random.nextInt(50);
+        List<Long> expected = spans.stream().filter(s -> s.start() < to && s.finish() > from)
+            .map(Span::start).sorted().collect(Collectors.toList());
+        assertEquals(expected, index.overlapping(from, to).stream().map(Span::start).collect(Collectors.toList()));
+        assertEquals(bruteForceGaps(spans, 3), index.gapsLongerThan(3));
+      }
+    }
+  }
+
+  private static List<Gap<Long>> bruteForceGaps(List<Span> spans, long minLength) {
+    BitSet covered = new BitSet();
+    spans.forEach(s -> covered.set((int) s.start(), (int) s.finish()));
+    List<Gap<Long>> gaps = new ArrayList<>();
+    int end = covered.nextClearBit(covered.nextSetBit(0));
+    while (covered.nextSetBit(end) >= 0) {
+      int next = covered.nextSetBit(end);
+      if (next - end > minLength) {
+        gaps.add(new Gap<>((long) end, (long) next, next - end));
+      }
+      end = covered.nextClearBit(next);
+    }
+    return gaps;
+  }
+}
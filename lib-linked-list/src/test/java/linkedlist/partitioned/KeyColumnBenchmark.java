@@ -0,0 +1,83 @@
+package linkedlist.partitioned;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares range counting over a partition's packed key column with searching and walking its elements, run with
+ * {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class KeyColumnBenchmark {
+
+  private static final int QUERIES = 200_000;
+
+  record Sequence(LocalDateTime index) implements Indexed<LocalDateTime> {
+  }
+
+  @Test
+  void countInRange() {
+    LocalDateTime start = LocalDateTime.of(2022, 1, 1, 0, 0);
+    List<Sequence> sequences = new ArrayList<>();
+    // a week of ten second sequences in weekly partitions
+    for (int i = 0; i < 7 * 24 * 360; i++) {
+      sequences.add(new Sequence(start.plusSeconds(i * 10L)));
+    }
+    FixedWidthPartitionIndexFactory<LocalDateTime> weekly = FixedWidthPartitionIndexFactory.of(start, Duration.ofDays(7));
+    PartitionedLinkedList<LocalDateTime, Sequence> objects = PartitionedLinkedList.bulkLoad(weekly, sequences);
+    PartitionedLinkedList<LocalDateTime, Sequence> columnar = PartitionedLinkedList.bulkLoad(weekly, sequences);
+    columnar.setKeyColumn(t -> t.toInstant(ZoneOffset.UTC).toEpochMilli());
+
+    Random random = new Random(11);
+    LocalDateTime[] froms = new LocalDateTime[QUERIES];
+    LocalDateTime[] tos = new LocalDateTime[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      froms[i] = start.plusSeconds(random.nextInt(7 * 24 * 3600));
+      tos[i] = froms[i].plusMinutes(1 + random.nextInt(600));
+    }
+
+    long walked = run("object walk", i -> {
+      int count = 0;
+      for (Sequence sequence : objects.linkedList(() -> froms[i])) {
+        if (sequence.index().compareTo(froms[i]) >= 0 && sequence.index().compareTo(tos[i]) < 0) {
+          count ++;
+        }
+      }
+      return count;
+    }, QUERIES / 100);
+    long searched = run("object search", i -> objects.count(froms[i], tos[i]), QUERIES);
+    long column = run("key column", i -> columnar.count(froms[i], tos[i]), QUERIES);
+    assertEquals(searched, column);
+    long counted = 0;
+    for (int i = 0; i < QUERIES / 100; i++) {
+      counted += columnar.count(froms[i], tos[i]);
+    }
+    assertEquals(walked, counted);
+  }
+
+  /**
+   * Runs the query a number of times after a warm up and prints the mean time per query.
+   *
+   * @return the sum of the query results.
+   */
+  private static long run(String name, ToIntFunction<Integer> query, int queries) {
+    for (int i = 0; i < queries; i++) {
+      query.applyAsInt(i);
+    }
+    long total = 0;
+    long begin = System.nanoTime();
+    for (int i = 0; i < queries; i++) {
+      total += query.applyAsInt(i);
+    }
+    System.out.printf("%-14s %,10d ns per query%n", name, (System.nanoTime() - begin) / queries);
+    return total;
+  }
+}
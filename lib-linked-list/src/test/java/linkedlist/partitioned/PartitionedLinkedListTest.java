@@ -1,21 +1,51 @@
 package linkedlist.partitioned;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import client.Item;
+import linkedlist.ElementCodec;
+import linkedlist.ListOption;
+import linkedlist.SecondaryIndex;
 
 class PartitionedLinkedListTest {
 
   // partition at 6am every day
   private LocalTime startOfDay = LocalTime.of(6, 0);
 
-  // create a new partition starting at 6 am on the date of the incoming sequence that covers 24 hours
-  // note, this is a bit naive as it stands as and needs to take the incoming index time into account
-  private PartitionedLinkedList<LocalDateTime, Item> list = new PartitionedLinkedList<>((e, i) -> new PartitionIndex<LocalDateTime>(i.with(startOfDay), i.with(startOfDay).plusHours(24)));
+  // create a new partition starting at 6 am on the broadcast day of the incoming sequence that covers 24 hours
+  private FixedWidthPartitionIndexFactory<LocalDateTime> daily =
+      FixedWidthPartitionIndexFactory.of(LocalDateTime.of(2000, 1, 1, 6, 0), Duration.ofHours(24));
+  private PartitionedLinkedList<LocalDateTime, Item> list = new PartitionedLinkedList<>(daily);
+
+  record Numbered(long value) implements Indexed<Long> {
+    @Override
+    public Long index() {
+      return value;
+    }
+  }
 
   @Test
   void addItems() {
@@ -36,4 +66,880 @@ class PartitionedLinkedListTest {
 
     assertEquals(6, arraylist.size());
   }
+
+  @Test
+  void bulkLoad() {
+    LocalDateTime start = LocalDateTime.of(2022, 1, 1, 6, 0);
+    List<Item> items = new ArrayList<>();
+    for (int i = 0; i < 50_000; i++) {
+      items.add(new Item(start.plusMinutes(i * 7)));
+    }
+    List<Item> shuffled = new ArrayList<>(items);
+    Collections.shuffle(shuffled, new Random(42));
+
+    PartitionedLinkedList<LocalDateTime, Item> loaded = PartitionedLinkedList.bulkLoad(daily, shuffled);
+
+    assertEquals(items.size(), loaded.size());
+    // 50,000 items every 7 minutes span 243 days
+    assertEquals(244, loaded.partitionCount());
+    List<Item> ordered = new ArrayList<>();
+    loaded.stream().forEach(ordered::add);
+    assertEquals(items, ordered);
+    items.forEach(i -> assertTrue(loaded.contains(i)));
+    assertEquals(items.get(1000), loaded.linkedList(items.get(1000)).get(items.get(1000)));
+  }
+
+  @Test
+  void bulkLoadRejectsPartitionNotContainingIndex() {
+    List<Item> items = List.of(new Item(LocalDateTime.of(2022, 1, 1, 3, 0)));
+    assertThrows(IllegalStateException.class, () -> PartitionedLinkedList.bulkLoad(
+        (e, i) -> new PartitionIndex<LocalDateTime>(i.with(startOfDay), i.with(startOfDay).plusHours(24)), items));
+  }
+
+  @Test
+  void fixedWidthRouting() {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10));
+    // add in descending order so every partition is created ahead of the existing ones
+    for (long i = 9_999; i >= 0; i--) {
+      numbers.add(new Numbered(i));
+    }
+    // partitions far apart collide in the slot ring
+    numbers.add(new Numbered(10_000_000));
+    numbers.add(new Numbered(-10_000_000));
+
+    assertEquals(1002, numbers.partitionCount());
+    assertEquals(10, numbers.linkedList(new Numbered(5_555)).size());
+    assertTrue(numbers.linkedList(new Numbered(5_555)).contains(new Numbered(5_559)));
+    assertTrue(numbers.linkedList(new Numbered(10_000_005)).contains(new Numbered(10_000_000)));
+    assertTrue(numbers.linkedList(new Numbered(-9_999_999)).contains(new Numbered(-10_000_000)));
+    assertThrows(NoSuchElementException.class, () -> numbers.linkedList(new Numbered(20_000)));
+
+    List<Long> ordered = new ArrayList<>();
+    numbers.stream().forEach(n -> ordered.add(n.index()));
+    assertEquals(-10_000_000L, ordered.get(0));
+    assertEquals(10_000_000L, ordered.get(ordered.size() - 1));
+  }
+
+  @Test
+  void floorAndCeiling() {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 100));
+    // every 10 between 0 and 990 but leave partition 300-399 empty and add out of order
+    for (long i = 990; i >= 0; i -= 10) {
+      if (i < 300 || i >= 400) {
+        numbers.add(new Numbered(i));
+      }
+    }
+
+    assertEquals(50L, numbers.floor(50L).index());
+    assertEquals(50L, numbers.floor(55L).index());
+    assertEquals(40L, numbers.lower(50L).index());
+    assertEquals(50L, numbers.ceiling(50L).index());
+    assertEquals(60L, numbers.ceiling(55L).index());
+    assertEquals(60L, numbers.higher(50L).index());
+    // across the empty gap
+    assertEquals(290L, numbers.floor(350L).index());
+    assertEquals(400L, numbers.ceiling(350L).index());
+    assertEquals(290L, numbers.lower(400L).index());
+    assertEquals(400L, numbers.higher(290L).index());
+    // beyond the ends
+    assertNull(numbers.lower(0L));
+    assertNull(numbers.floor(-5L));
+    assertEquals(0L, numbers.ceiling(-5L).index());
+    assertNull(numbers.higher(990L));
+    assertEquals(990L, numbers.floor(5_000L).index());
+  }
+
+  @Test
+  void cursor() {
+    LocalDateTime start = LocalDateTime.of(2022, 1, 1, 6, 0);
+    List<Item> items = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      Item item = new Item(start.plusMinutes(i * 30));
+      items.add(item);
+      list.add(item);
+    }
+
+    PartitionedLinkedList<LocalDateTime, Item>.Cursor cursor = list.cursor(start.minusMinutes(1));
+    assertNull(cursor.current());
+    assertEquals(items.get(0), cursor.next());
+    for (int minute = 0; minute < 1_000 * 30; minute += 7) {
+      cursor.advance(start.plusMinutes(minute));
+      assertEquals(items.get(minute / 30), cursor.current());
+      if (minute / 30 + 1 < items.size()) {
+        assertEquals(items.get(minute / 30 + 1), cursor.next());
+      } else {
+        assertNull(cursor.next());
+      }
+    }
+
+    // edits are picked up by the cursor
+    cursor.advance(start.plusMinutes(15));
+    Item inserted = new Item(start.plusMinutes(10));
+    list.add(inserted);
+    assertEquals(inserted, cursor.current());
+    // moving backwards repositions the cursor
+    cursor.advance(start);
+    assertEquals(items.get(0), cursor.current());
+    assertEquals(inserted, cursor.next());
+  }
+
+  @Test
+  void cursorFollowsNewPartitions() {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 100));
+    numbers.add(new Numbered(290));
+    numbers.add(new Numbered(410));
+
+    PartitionedLinkedList<Long, Numbered>.Cursor cursor = numbers.cursor(350L);
+    assertEquals(new Numbered(290), cursor.current());
+    // a partition created in the gap the cursor is positioned in
+    numbers.add(new Numbered(320));
+    assertEquals(new Numbered(320), cursor.current());
+    assertEquals(new Numbered(410), cursor.next());
+  }
+
+  @Test
+  void orderedQueriesFollowInterleavedEdits() {
+    Random random = new Random(42);
+    PartitionedLinkedList<Long, Slot> slots = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 100));
+    PartitionedLinkedList<Long, Slot> columnar = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 100));
+    columnar.setKeyColumn(Long::longValue);
+    List<Slot> expected = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      int op = random.nextInt(4);
+      if (op == 0 || expected.isEmpty()) {
+        Slot slot = new Slot(random.nextInt(1_000));
+        expected.add(slot);
+        slots.add(slot);
+        columnar.add(new Slot(slot.start));
+      } else if (op == 1) {
+        Slot slot = expected.remove(random.nextInt(expected.size()));
+        slots.linkedList(slot).remove(slot);
+        Slot twin = columnar.floor(slot.start);
+        columnar.linkedList(twin).remove(twin);
+      } else if (op == 2) {
+        Slot slot = expected.get(random.nextInt(expected.size()));
+        Slot twin = columnar.floor(slot.start);
+        long previous = slot.start;
+        slot.start = random.nextInt(1_000);
+        slots.reindex(slot, previous);
+        twin.start = slot.start;
+        columnar.reindex(twin, previous);
+      }
+      long from = random.nextInt(1_000);
+      long to = from + random.nextInt(150);
+      List<Long> inRange = new ArrayList<>();
+      expected.forEach(s -> {
+        if (s.start >= from && s.start < to) {
+          inRange.add(s.start);
+        }
+      });
+      Collections.sort(inRange);
+      assertEquals(inRange, indexes(slots.range(from, to)));
+      assertEquals(inRange, indexes(columnar.range(from, to)));
+      assertEquals(inRange.size(), columnar.count(from, to));
+      Long floor = expected.stream().map(s -> s.start).filter(s -> s <= from).max(Long::compare).orElse(null);
+      Long higher = expected.stream().map(s -> s.start).filter(s -> s > from).min(Long::compare).orElse(null);
+      assertEquals(floor, index(slots.floor(from)));
+      assertEquals(floor, index(columnar.floor(from)));
+      assertEquals(higher, index(slots.higher(from)));
+      PartitionedLinkedList<Long, Slot>.Cursor cursor = slots.cursor(from);
+      assertEquals(floor, index(cursor.current()));
+      assertEquals(higher, index(cursor.next()));
+    }
+  }
+
+  private static Long index(Indexed<Long> element) {
+    return element != null ? element.index() : null;
+  }
+
+  @Test
+  void compactNodes() {
+    PartitionedLinkedList<Long, Numbered> numbers =
+        new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10), ListOption.COMPACT_NODES);
+    for (long i = 0; i < 100; i++) {
+      numbers.add(new Numbered(i));
+    }
+
+    DoubleLinkedList<Numbered> tens = numbers.linkedList(new Numbered(15));
+    assertTrue(tens.contains(new Numbered(10)));
+    assertTrue(tens.contains(new Numbered(19)));
+    // held in the shared map but owned by another partition
+    assertFalse(tens.contains(new Numbered(20)));
+    assertThrows(IllegalArgumentException.class, () -> tens.iterator(new Numbered(20)));
+    assertEquals(new Numbered(10), tens.iterator(new Numbered(10)).next());
+  }
+
+  @Test
+  void identityKeys() {
+    PartitionedLinkedList<Long, Numbered> numbers =
+        new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10), ListOption.IDENTITY_KEYS);
+    Numbered five = new Numbered(5);
+    numbers.add(five);
+
+    assertTrue(numbers.contains(five));
+    // an equal but different instance is not found
+    assertFalse(numbers.contains(new Numbered(5)));
+    assertTrue(numbers.linkedList(five).contains(five));
+  }
+
+  // a mutable element with identity equality
+  static class Slot implements Indexed<Long> {
+    long start;
+
+    Slot(long start) {
+      this.start = start;
+    }
+
+    @Override
+    public Long index() {
+      return start;
+    }
+  }
+
+  private static List<Long> indexes(Iterable<? extends Indexed<Long>> list) {
+    List<Long> result = new ArrayList<>();
+    list.forEach(e -> result.add(e.index()));
+    return result;
+  }
+
+  @Test
+  void reindex() {
+    PartitionedLinkedList<Long, Slot> slots = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10));
+    List<Slot> added = new ArrayList<>();
+    for (long i = 0; i < 50; i += 2) {
+      Slot slot = new Slot(i);
+      added.add(slot);
+      slots.add(slot);
+    }
+
+    Slot moved = added.get(2);
+    moved.start = 25;
+    slots.reindex(moved, 4L);
+    assertEquals(List.of(0L, 2L, 6L, 8L), indexes(slots.linkedList(() -> 0L)));
+    assertEquals(List.of(20L, 22L, 24L, 25L, 26L, 28L), indexes(slots.linkedList(moved)));
+
+    // within the same partition and to the head
+    moved.start = 20;
+    slots.reindex(moved, 25L);
+    assertEquals(List.of(20L, 20L, 22L, 24L, 26L, 28L), indexes(slots.linkedList(moved)));
+
+    // in to a partition that does not exist yet
+    moved.start = 105;
+    slots.reindex(moved, 20L);
+    assertEquals(List.of(105L), indexes(slots.linkedList(moved)));
+    assertEquals(25, slots.size());
+
+    assertThrows(IllegalArgumentException.class, () -> slots.reindex(moved, 20L));
+  }
+
+  @Test
+  void reindexAll() {
+    PartitionedLinkedList<Long, Slot> slots = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10), ListOption.COMPACT_NODES);
+    List<Slot> added = new ArrayList<>();
+    for (long i = 0; i < 50; i += 2) {
+      Slot slot = new Slot(i);
+      added.add(slot);
+      slots.add(slot);
+    }
+
+    Map<Slot, Long> previous = new HashMap<>();
+    for (int i = 0; i < 5; i++) {
+      Slot slot = added.get(i);
+      previous.put(slot, slot.start);
+      slot.start = 41 + i * 2;
+    }
+    slots.reindexAll(previous);
+
+    assertEquals(List.of(40L, 41L, 42L, 43L, 44L, 45L, 46L, 47L, 48L, 49L), indexes(slots.linkedList(() -> 40L)));
+    assertEquals(List.of(10L, 12L, 14L, 16L, 18L), indexes(slots.linkedList(() -> 10L)));
+    assertTrue(slots.linkedList(() -> 0L).isEmpty());
+    assertEquals(25, slots.size());
+  }
+
+  @Test
+  void reindexChecksThePreviousPartition() {
+    PartitionedLinkedList<Long, Slot> slots = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10), ListOption.COMPACT_NODES);
+    Slot one = new Slot(1);
+    Slot five = new Slot(5);
+    for (Slot slot : List.of(one, five, new Slot(15), new Slot(16))) {
+      slots.add(slot);
+    }
+
+    // the node of five is linked in [0, 10) not [10, 20), its new index can not tell
+    five.start = 25;
+    assertThrows(IllegalArgumentException.class, () -> slots.reindex(five, 15L));
+    one.start = 12;
+    assertThrows(IllegalArgumentException.class, () -> slots.reindexAll(Map.of(one, 1L, five, 15L)));
+    assertEquals(List.of(12L, 25L), indexes(slots.linkedList(() -> 0L)));
+    assertEquals(2, slots.linkedList(() -> 0L).size());
+    assertEquals(List.of(15L, 16L), indexes(slots.linkedList(() -> 15L)));
+    assertEquals(2, slots.linkedList(() -> 15L).size());
+
+    slots.reindexAll(Map.of(one, 1L, five, 5L));
+    assertTrue(slots.linkedList(() -> 0L).isEmpty());
+    assertEquals(List.of(12L, 15L, 16L), indexes(slots.linkedList(() -> 15L)));
+    assertEquals(List.of(25L), indexes(slots.linkedList(five)));
+  }
+
+  @Test
+  void moveToLeavesTheListUnchangedWhenThePartitionCanNotBeCreated() {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(
+        new FixedWidthPartitionIndexFactory<>(0L, 10, FixedWidthPartitionIndexFactory.Scale.LONG, 2));
+    numbers.add(new Numbered(5));
+    numbers.add(new Numbered(15));
+
+    assertThrows(IllegalStateException.class, () -> numbers.moveTo(new Numbered(5), new Numbered(25)));
+    assertTrue(numbers.contains(new Numbered(5)));
+    assertEquals(List.of(new Numbered(5)), numbers.linkedList(() -> 5L));
+    assertEquals(2, numbers.size());
+  }
+
+  @Test
+  void failedMovesCreateNoPartitions() {
+    PartitionedLinkedList<Long, Slot> slots = new PartitionedLinkedList<>(
+        new FixedWidthPartitionIndexFactory<>(0L, 10, FixedWidthPartitionIndexFactory.Scale.LONG, 3), ListOption.COMPACT_NODES);
+    Slot one = new Slot(1);
+    Slot two = new Slot(2);
+    slots.add(one);
+    slots.add(two);
+    slots.add(new Slot(15));
+
+    assertThrows(IllegalArgumentException.class, () -> slots.moveTo(new Slot(7), new Slot(35)));
+    one.start = 25;
+    assertThrows(IllegalArgumentException.class, () -> slots.reindex(one, 15L));
+    assertThrows(IllegalArgumentException.class, () -> slots.reindexAll(Map.of(one, 15L)));
+    assertEquals(2, slots.partitionCount());
+
+    // the factory allows one more partition, the first is created before the second fails
+    two.start = 45;
+    Map<Slot, Long> previous = new LinkedHashMap<>();
+    previous.put(one, 1L);
+    previous.put(two, 2L);
+    assertThrows(IllegalStateException.class, () -> slots.reindexAll(previous));
+    assertEquals(2, slots.partitionCount());
+    assertEquals(List.of(25L, 45L), indexes(slots.linkedList(() -> 0L)));
+    assertEquals(3, slots.size());
+  }
+
+  @Test
+  void moveTo() {
+    LocalDateTime start = LocalDateTime.of(2022, 1, 1, 6, 0);
+    List<Item> items = new ArrayList<>();
+    for (int i = 0; i < 96; i++) {
+      Item item = new Item(start.plusMinutes(i * 30));
+      items.add(item);
+      list.add(item);
+    }
+
+    Item rescheduled = new Item(start.plusHours(24).plusMinutes(45));
+    list.moveTo(items.get(2), rescheduled);
+
+    assertFalse(list.contains(items.get(2)));
+    assertTrue(list.contains(rescheduled));
+    assertEquals(96, list.size());
+    assertEquals(47, list.linkedList(items.get(0)).size());
+    assertEquals(49, list.linkedList(rescheduled).size());
+    assertEquals(rescheduled, list.higher(items.get(49).index()));
+    assertEquals(items.get(50), list.higher(rescheduled.index()));
+  }
+
+  @Test
+  void aggregates() {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10));
+    Aggregator<Numbered, Long> count = Aggregator.count();
+    Aggregator<Numbered, Long> sum = Aggregator.summingLong(Numbered::value);
+    Aggregator<Numbered, Long> max = Aggregator.max(Numbered::index);
+    numbers.addAggregator(count);
+    numbers.addAggregator(sum);
+    for (long i = 0; i < 100; i++) {
+      numbers.add(new Numbered(i));
+    }
+    // registered after the partitions exist
+    numbers.addAggregator(max);
+
+    assertEquals(100, numbers.aggregate(count));
+    assertEquals(4950, numbers.aggregate(sum));
+    assertEquals(99, numbers.aggregate(max));
+    // partial partitions at both edges
+    assertEquals(25, numbers.aggregate(count, 15L, 40L));
+    assertEquals(675, numbers.aggregate(sum, 15L, 40L));
+    assertEquals(39, numbers.aggregate(max, 15L, 40L));
+    assertEquals(0, numbers.aggregate(count, 200L, 300L));
+    assertNull(numbers.aggregate(max, -20L, -10L));
+
+    numbers.linkedList(new Numbered(99)).remove(new Numbered(99));
+    numbers.linkedList(new Numbered(35)).removeIf(n -> n.value() % 2 == 0);
+    numbers.add(new Numbered(150));
+    assertEquals(95, numbers.aggregate(count));
+    assertEquals(4950 - 99 - 30 - 32 - 34 - 36 - 38 + 150, numbers.aggregate(sum));
+    assertEquals(98, numbers.aggregate(max, 0L, 100L));
+    assertEquals(150, numbers.aggregate(max));
+    assertEquals(5, numbers.aggregateByPartition(count).get(30L));
+    assertEquals(11, numbers.aggregateByPartition(count).size());
+
+    Aggregator<Numbered, Long> unregistered = Aggregator.count();
+    assertThrows(IllegalArgumentException.class, () -> numbers.aggregate(unregistered));
+  }
+
+  @Test
+  void aggregatesFollowMoves() {
+    PartitionedLinkedList<Long, Slot> slots = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10));
+    Aggregator<Slot, Long> sum = Aggregator.summingLong(Slot::index);
+    slots.addAggregator(sum);
+    Slot moved = new Slot(5);
+    slots.add(moved);
+    slots.add(new Slot(15));
+    assertEquals(5, slots.aggregate(sum, 0L, 10L));
+
+    moved.start = 12;
+    slots.reindex(moved, 5L);
+    assertEquals(0, slots.aggregate(sum, 0L, 10L));
+    assertEquals(27, slots.aggregate(sum, 10L, 20L));
+    assertEquals(27, slots.aggregate(sum));
+  }
+
+  @Test
+  void secondaryIndex() {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10));
+    for (long i = 0; i < 50; i++) {
+      numbers.add(new Numbered(i));
+    }
+    SecondaryIndex<Long, Numbered> byRemainder = numbers.addIndex(n -> n.value() % 7, SecondaryIndex.Type.HASH);
+    assertEquals(7, byRemainder.keyCount());
+    assertEquals(7, byRemainder.get(1L).size());
+
+    numbers.add(new Numbered(71));
+    numbers.linkedList(new Numbered(15)).remove(new Numbered(15));
+    numbers.moveTo(new Numbered(22), new Numbered(64));
+    assertEquals(7, byRemainder.get(1L).size());
+    assertTrue(byRemainder.get(1L).contains(new Numbered(64)));
+    assertFalse(byRemainder.get(1L).contains(new Numbered(22)));
+
+    // iterate on in index order across partitions from an element found through the index
+    Iterator<Numbered> from = numbers.elementIterator(byRemainder.first(6L));
+    assertEquals(6L, from.next().value());
+    for (long i = 7; i < 10; i++) {
+      assertEquals(i, from.next().value());
+    }
+    assertEquals(10L, from.next().value());
+    assertThrows(IllegalArgumentException.class, () -> numbers.elementIterator(new Numbered(500)));
+
+    numbers.clear();
+    assertEquals(0, byRemainder.keyCount());
+  }
+
+  @Test
+  void parallelBulkOperations() {
+    // the first partition is large enough to be split in to chunks
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 20_000));
+    Aggregator<Numbered, Long> sum = Aggregator.summingLong(Numbered::value);
+    numbers.addAggregator(sum);
+    for (long i = 0; i < 30_000; i++) {
+      numbers.add(new Numbered(i));
+    }
+    SecondaryIndex<Long, Numbered> byRemainder = numbers.addIndex(n -> n.value() % 4, SecondaryIndex.Type.HASH);
+
+    assertTrue(numbers.parallelRemoveIf(n -> n.value() % 2 == 1));
+    assertFalse(numbers.parallelRemoveIf(n -> n.value() < 0));
+    assertEquals(15_000, numbers.size());
+    assertEquals(0, byRemainder.get(1L).size());
+    assertFalse(numbers.contains(new Numbered(19_999)));
+    assertEquals(15_000L * 14_999, numbers.aggregate(sum));
+
+    LongAdder visited = new LongAdder();
+    numbers.forEachPartitionParallel(n -> visited.add(n.value()));
+    assertEquals(15_000L * 14_999, visited.sum());
+
+    // equal replacements stay in place, the rest move to their new index
+    Numbered two = numbers.floor(2L);
+    numbers.parallelReplaceAll(n -> n.value() % 1_000 == 0 ? new Numbered(n.value() + 1) : new Numbered(n.value()));
+    assertEquals(15_000, numbers.size());
+    assertFalse(numbers.contains(new Numbered(1_000)));
+    assertTrue(numbers.contains(new Numbered(1_001)));
+    assertTrue(numbers.contains(new Numbered(2)));
+    assertTrue(numbers.floor(2L) != two);
+    assertEquals(30, byRemainder.get(1L).size());
+    assertEquals(15_000L * 14_999 + 30, numbers.aggregate(sum));
+    List<Numbered> elements = numbers.stream().toList();
+    for (int i = 1; i < elements.size(); i++) {
+      assertTrue(elements.get(i - 1).value() < elements.get(i).value());
+    }
+  }
+
+  @Test
+  void reclaimEmptyPartitions() {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10));
+    for (long i = 0; i < 100; i++) {
+      numbers.add(new Numbered(i));
+    }
+    numbers.reclaimEmptyPartitions(2);
+    numbers.linkedList(new Numbered(0)).clear();
+    numbers.add(new Numbered(100));
+    // the emptied partition is retained
+    assertEquals(11, numbers.partitionCount());
+
+    numbers.linkedList(new Numbered(10)).removeIf(n -> true);
+    numbers.linkedList(new Numbered(20)).remove(new Numbered(20));
+    numbers.linkedList(new Numbered(25)).removeIf(n -> true);
+    numbers.add(new Numbered(101));
+    // the least recently emptied partition is reclaimed
+    assertEquals(10, numbers.partitionCount());
+    assertEquals(1, numbers.reclaimedPartitionCount());
+    assertThrows(NoSuchElementException.class, () -> numbers.linkedList(new Numbered(0)));
+
+    // a retained partition that is refilled is no longer empty
+    numbers.add(new Numbered(15));
+    numbers.linkedList(new Numbered(35)).clear();
+    numbers.add(new Numbered(102));
+    assertEquals(10, numbers.partitionCount());
+    assertEquals(1, numbers.reclaimedPartitionCount());
+    assertEquals(List.of(new Numbered(15)), numbers.linkedList(new Numbered(15)));
+    assertTrue(numbers.contains(new Numbered(55)));
+    assertEquals(64, numbers.size());
+
+    numbers.clear();
+    assertEquals(2, numbers.partitionCount());
+    assertEquals(0, numbers.size());
+    assertEquals(2, numbers.compact());
+    assertEquals(0, numbers.partitionCount());
+    assertEquals(11, numbers.reclaimedPartitionCount());
+    numbers.add(new Numbered(5));
+    assertEquals(new Numbered(5), numbers.floor(7L));
+    assertThrows(IllegalArgumentException.class, () -> numbers.reclaimEmptyPartitions(-1));
+  }
+
+  @Test
+  void compact() {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10));
+    for (long i = 0; i < 1_000; i += 5) {
+      numbers.add(new Numbered(i));
+    }
+    PartitionedLinkedList<Long, Numbered>.Cursor cursor = numbers.cursor(12L);
+    SecondaryIndex<Long, Numbered> byTens = numbers.addIndex(n -> n.value() / 10, SecondaryIndex.Type.HASH);
+    for (long i = 0; i < 900; i += 5) {
+      numbers.linkedList(new Numbered(i)).remove(new Numbered(i));
+    }
+    // nothing is reclaimed automatically unless enabled
+    assertEquals(100, numbers.partitionCount());
+    assertEquals(90, numbers.compact());
+    assertEquals(10, numbers.partitionCount());
+    assertNull(cursor.current());
+    assertEquals(new Numbered(900), cursor.next());
+    // indexes are keyed by element so reclaiming empty partitions leaves them current
+    assertEquals(2, byTens.get(95L).size());
+    assertEquals(0, byTens.get(5L).size());
+    for (long i = 900; i < 1_000; i += 5) {
+      assertTrue(numbers.contains(new Numbered(i)));
+    }
+    numbers.add(new Numbered(3));
+    assertEquals(11, numbers.partitionCount());
+    assertEquals(new Numbered(3), numbers.lower(900L));
+  }
+
+  @Test
+  void freezeAndThaw() {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10));
+    for (long i = 0; i < 100; i += 2) {
+      numbers.add(new Numbered(i));
+    }
+    // linked out of index order
+    numbers.linkedList(new Numbered(30)).add(new Numbered(31));
+    numbers.linkedList(new Numbered(30)).add(new Numbered(33));
+    numbers.linkedList(new Numbered(30)).add(new Numbered(29));
+    FrozenPartitionedList<Long, Numbered> frozen = numbers.freeze();
+    numbers.clear();
+
+    assertEquals(53, frozen.size());
+    assertEquals(10, frozen.partitionCount());
+    assertEquals(List.of(new Numbered(20), new Numbered(22), new Numbered(24), new Numbered(26), new Numbered(28)),
+        frozen.partition(25L));
+    // the partition an element was linked in to is kept
+    assertEquals(new Numbered(29), frozen.partition(35L).get(0));
+    assertEquals(List.of(), frozen.partition(-5L));
+    assertEquals(List.of(new Numbered(30), new Numbered(31), new Numbered(32), new Numbered(33)), frozen.range(30L, 34L));
+    assertEquals(17, frozen.indexOf(new Numbered(31)));
+    assertEquals(new Numbered(31), frozen.get(17));
+    assertTrue(frozen.contains(new Numbered(98)));
+    assertFalse(frozen.contains(new Numbered(99)));
+    assertEquals(new Numbered(33), frozen.floor(33L));
+    assertEquals(new Numbered(32), frozen.lower(33L));
+    assertEquals(new Numbered(34), frozen.ceiling(34L));
+    assertEquals(new Numbered(36), frozen.higher(34L));
+    assertNull(frozen.higher(98L));
+    assertNull(frozen.lower(0L));
+
+    PartitionedLinkedList<Long, Numbered> thawed = frozen.thaw();
+    assertEquals(53, thawed.size());
+    assertEquals(10, thawed.partitionCount());
+    thawed.add(new Numbered(101));
+    assertEquals(frozen.elements(), thawed.stream().limit(53).toList());
+    assertEquals(new Numbered(29), thawed.lower(30L));
+  }
+
+  @Test
+  void mergeFrom() {
+    PartitionedLinkedList<Long, Numbered> live = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10));
+    PartitionedLinkedList<Long, Numbered> feed = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10));
+    for (long i = 0; i < 50; i += 2) {
+      live.add(new Numbered(i));
+    }
+    for (long i = 41; i < 100; i += 2) {
+      feed.add(new Numbered(i));
+    }
+    Aggregator<Numbered, Long> count = Aggregator.count();
+    live.addAggregator(count);
+    SecondaryIndex<Long, Numbered> byRemainder = live.addIndex(n -> n.value() % 3, SecondaryIndex.Type.HASH);
+    SecondaryIndex<Long, Numbered> feedIndex = feed.addIndex(n -> n.value() % 3, SecondaryIndex.Type.HASH);
+
+    live.mergeFrom(feed);
+    assertEquals(55, live.size());
+    assertEquals(10, live.partitionCount());
+    assertTrue(feed.isEmpty());
+    assertEquals(0, feedIndex.keyCount());
+    // the colliding partition is merged in index order
+    assertEquals(List.of(new Numbered(40), new Numbered(41), new Numbered(42), new Numbered(43), new Numbered(44),
+        new Numbered(45), new Numbered(46), new Numbered(47), new Numbered(48), new Numbered(49)),
+        live.linkedList(new Numbered(45)));
+    assertEquals(List.of(new Numbered(51), new Numbered(53), new Numbered(55), new Numbered(57), new Numbered(59)),
+        live.linkedList(new Numbered(55)));
+    assertTrue(live.contains(new Numbered(99)));
+    assertEquals(55, live.aggregate(count));
+    assertEquals(10, live.aggregate(count, 40L, 50L));
+    assertEquals(19, byRemainder.get(0L).size());
+    List<Numbered> elements = live.stream().toList();
+    for (int i = 1; i < elements.size(); i++) {
+      assertTrue(elements.get(i - 1).value() < elements.get(i).value());
+    }
+
+    // the merged nodes belong to this list
+    live.moveTo(new Numbered(97), new Numbered(5));
+    live.linkedList(new Numbered(99)).remove(new Numbered(99));
+    assertEquals(new Numbered(5), live.higher(4L));
+    assertEquals(new Numbered(95), live.lower(100L));
+    feed.add(new Numbered(1));
+    assertEquals(1, feed.size());
+
+    assertThrows(IllegalArgumentException.class, () -> live.mergeFrom(live));
+    assertThrows(IllegalArgumentException.class, () -> live.mergeFrom(
+        new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10), ListOption.COMPACT_NODES)));
+    assertThrows(IllegalArgumentException.class, () -> live.mergeFrom(
+        new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(5, 10))));
+  }
+
+  @Test
+  void mergeFromSplicesCompactPartitions() {
+    PartitionedLinkedList<Long, Numbered> live = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10),
+        ListOption.COMPACT_NODES);
+    PartitionedLinkedList<Long, Numbered> feed = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10),
+        ListOption.COMPACT_NODES);
+    for (long i = 0; i < 20; i++) {
+      live.add(new Numbered(i));
+      feed.add(new Numbered(i + 20));
+    }
+
+    live.mergeFrom(feed);
+    assertTrue(feed.isEmpty());
+    assertEquals(40, live.size());
+    assertEquals(10, live.linkedList(new Numbered(25)).size());
+    assertTrue(live.linkedList(new Numbered(25)).remove(new Numbered(25)));
+    live.moveTo(new Numbered(39), new Numbered(5));
+    assertEquals(List.of(new Numbered(20), new Numbered(21), new Numbered(22), new Numbered(23), new Numbered(24),
+        new Numbered(26), new Numbered(27), new Numbered(28), new Numbered(29)), live.linkedList(new Numbered(25)));
+    assertEquals(9, live.linkedList(new Numbered(35)).size());
+    assertEquals(11, live.linkedList(new Numbered(5)).size());
+  }
+
+  @Test
+  void lazyIndex() {
+    List<Numbered> items = new ArrayList<>();
+    for (long i = 0; i < 100; i++) {
+      items.add(new Numbered(i));
+    }
+    for (PartitionedLinkedList<Long, Numbered> numbers : List.of(
+        PartitionedLinkedList.bulkLoad(FixedWidthPartitionIndexFactory.of(0, 10), items, ListOption.LAZY_INDEX),
+        new PartitionedLinkedList<Long, Numbered>(FixedWidthPartitionIndexFactory.of(0, 10), ListOption.LAZY_INDEX))) {
+      if (numbers.isEmpty()) {
+        items.forEach(numbers::add);
+      }
+      numbers.add(new Numbered(150));
+      assertEquals(101, numbers.size());
+      assertEquals(new Numbered(45), numbers.floor(45L));
+
+      // searching one partition indexes only that partition
+      assertTrue(numbers.linkedList(new Numbered(20)).contains(new Numbered(25)));
+      numbers.linkedList(new Numbered(20)).remove(new Numbered(26));
+      assertEquals(100, numbers.size());
+
+      assertTrue(numbers.contains(new Numbered(99)));
+      assertFalse(numbers.contains(new Numbered(26)));
+      numbers.moveTo(new Numbered(150), new Numbered(26));
+      assertEquals(new Numbered(26), numbers.higher(25L));
+      assertEquals(100, numbers.size());
+
+      numbers.clear();
+      numbers.add(new Numbered(1));
+      assertEquals(1, numbers.size());
+      assertTrue(numbers.contains(new Numbered(1)));
+    }
+  }
+
+  @Test
+  void keyColumn() {
+    LocalDateTime start = LocalDateTime.of(2022, 1, 1, 6, 0);
+    PartitionedLinkedList<LocalDateTime, Item> columnar = new PartitionedLinkedList<>(daily);
+    for (int i = 0; i < 240; i++) {
+      Item item = new Item(start.plusMinutes(i * 30));
+      list.add(item);
+      columnar.add(item);
+    }
+    columnar.setKeyColumn(t -> t.toInstant(ZoneOffset.UTC).toEpochMilli());
+
+    LocalDateTime from = start.plusHours(20).plusMinutes(10);
+    LocalDateTime to = start.plusHours(75);
+    assertEquals(109, columnar.count(from, to));
+    assertEquals(list.count(from, to), columnar.count(from, to));
+    assertEquals(list.range(from, to), columnar.range(from, to));
+    assertEquals(start.plusHours(20).plusMinutes(30), columnar.range(from, to).get(0).index());
+    assertEquals(240, columnar.count(start, start.plusDays(5)));
+    assertEquals(0, columnar.count(to, from));
+    assertEquals(list.floor(from), columnar.floor(from));
+    assertEquals(list.ceiling(to), columnar.ceiling(to));
+
+    // the column follows changes to the partition
+    columnar.linkedList(columnar.floor(from)).remove(columnar.floor(from));
+    assertEquals(109, columnar.count(from, to));
+    assertEquals(start.plusHours(19).plusMinutes(30), columnar.lower(from).index());
+  }
+
+  static final ElementCodec<Numbered> NUMBERED_CODEC = new ElementCodec<>() {
+    @Override
+    public int size(Numbered element) {
+      return Long.BYTES;
+    }
+
+    @Override
+    public void encode(Numbered element, ByteBuffer buffer) {
+      buffer.putLong(element.value());
+    }
+
+    @Override
+    public Numbered decode(ByteBuffer buffer) {
+      return new Numbered(buffer.getLong());
+    }
+  };
+
+  @Test
+  void tiering(@TempDir Path directory) throws IOException {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10),
+        new Tiering<>(directory, NUMBERED_CODEC, 100, Tiering.Policy.LRU, 1));
+    Aggregator<Numbered, Long> sum = Aggregator.summingLong(Numbered::value);
+    numbers.addAggregator(sum);
+    for (long i = 0; i < 1_000; i++) {
+      numbers.add(new Numbered(i));
+    }
+
+    assertEquals(1_000, numbers.size());
+    assertEquals(90, numbers.spilledPartitionCount());
+    try (var files = Files.list(directory)) {
+      assertEquals(90, files.count());
+    }
+    // summaries of spilled partitions are still known
+    assertEquals(499_500, numbers.aggregate(sum));
+    assertTrue(numbers.contains(new Numbered(5)));
+    assertEquals(10, numbers.linkedList(new Numbered(5)).size());
+    assertFalse(numbers.contains(new Numbered(5_000)));
+
+    List<Long> ordered = new ArrayList<>();
+    numbers.stream().forEach(n -> ordered.add(n.value()));
+    assertEquals(1_000, ordered.size());
+    for (int i = 0; i < ordered.size(); i++) {
+      assertEquals(i, ordered.get(i));
+    }
+    assertEquals(505L, numbers.floor(505L).value());
+    numbers.moveTo(new Numbered(3), new Numbered(1_003));
+    assertEquals(List.of(1_003L), indexes(numbers.linkedList(new Numbered(1_000))));
+    assertFalse(numbers.contains(new Numbered(3)));
+    assertEquals(1_000, numbers.size());
+    assertTrue(numbers.spilledPartitionCount() > 0);
+
+    numbers.clear();
+    assertEquals(0, numbers.size());
+    try (var files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  @Test
+  void tieredElementsAreFoundByValue(@TempDir Path directory) {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10),
+        new Tiering<>(directory, NUMBERED_CODEC, 20, Tiering.Policy.LRU, 0));
+    Numbered five = new Numbered(5);
+    numbers.add(five);
+    for (long i = 10; i < 100; i++) {
+      numbers.add(new Numbered(i));
+    }
+    assertTrue(numbers.spilledPartitionCount() > 0);
+
+    // the faulted in list holds an equal copy of the added instance
+    DoubleLinkedList<Numbered> partition = numbers.linkedList(five);
+    assertFalse(partition.get(five) == five);
+    assertTrue(partition.remove(new Numbered(5)));
+    assertFalse(numbers.contains(five));
+    assertEquals(90, numbers.size());
+
+    // an index would keep every spilled element on the heap
+    assertThrows(IllegalStateException.class, () -> numbers.addIndex(n -> n.value() % 7, SecondaryIndex.Type.HASH));
+    assertThrows(IllegalStateException.class, () -> numbers.addIntervalIndex(n -> n.value() + 1, (a, b) -> b - a));
+  }
+
+  @Test
+  void tieringRejectsIdentityEquality(@TempDir Path directory) throws IOException {
+    ElementCodec<Item> codec = new ElementCodec<>() {
+      @Override
+      public int size(Item element) {
+        return Long.BYTES;
+      }
+
+      @Override
+      public void encode(Item element, ByteBuffer buffer) {
+        buffer.putLong(element.index().toEpochSecond(ZoneOffset.UTC));
+      }
+
+      @Override
+      public Item decode(ByteBuffer buffer) {
+        return new Item(LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC));
+      }
+    };
+    PartitionedLinkedList<LocalDateTime, Item> items =
+        new PartitionedLinkedList<>(daily, new Tiering<>(directory, codec, 2, Tiering.Policy.LRU, 0));
+    LocalDateTime start = LocalDateTime.of(2022, 1, 1, 6, 0);
+    items.add(new Item(start));
+    items.add(new Item(start.plusDays(1)));
+
+    assertThrows(IllegalStateException.class, () -> items.add(new Item(start.plusDays(2))));
+    // nothing left the heap
+    assertEquals(3, items.size());
+    assertEquals(0, items.spilledPartitionCount());
+    try (var files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  @Test
+  void tieringByIndexAge(@TempDir Path directory) {
+    PartitionedLinkedList<Long, Numbered> numbers = new PartitionedLinkedList<>(FixedWidthPartitionIndexFactory.of(0, 10),
+        new Tiering<>(directory, NUMBERED_CODEC, 50, Tiering.Policy.INDEX_AGE, 0));
+    for (long i = 0; i < 100; i++) {
+      numbers.add(new Numbered(i));
+    }
+    // the oldest partitions are spilled first
+    assertEquals(5, numbers.spilledPartitionCount());
+    // re-reading an old partition spills the oldest one still resident
+    assertTrue(numbers.contains(new Numbered(0)));
+    assertEquals(5, numbers.spilledPartitionCount());
+    assertTrue(numbers.contains(new Numbered(55)));
+    assertEquals(100, numbers.size());
+    assertThrows(IllegalArgumentException.class, () -> new PartitionedLinkedList<Long, Numbered>(FixedWidthPartitionIndexFactory.of(0, 10),
+        new Tiering<>(directory, NUMBERED_CODEC, 50, Tiering.Policy.INDEX_AGE, 0), ListOption.IDENTITY_KEYS));
+  }
 }
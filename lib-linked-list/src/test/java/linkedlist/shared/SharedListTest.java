@@ -0,0 +1,256 @@
+package linkedlist.shared;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import linkedlist.ElementCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SharedListTest {
+
+  static final ElementCodec<String> STRING_CODEC = new ElementCodec<>() {
+    @Override
+    public int size(String element) {
+      return Integer.BYTES + element.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @Override
+    public void encode(String element, ByteBuffer buffer) {
+      byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+      buffer.putInt(bytes.length);
+      buffer.put(bytes);
+    }
+
+    @Override
+    public String decode(ByteBuffer buffer) {
+      byte[] bytes = new byte[buffer.getInt()];
+      buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  };
+
+  @Test
+  void writeAndRead(@TempDir Path directory) {
+    Path file = directory.resolve("schedule.list");
+    SharedListWriter<String> writer = new SharedListWriter<>(file, STRING_CODEC, 16, 4096);
+    SharedListReader<String> reader = new SharedListReader<>(file, STRING_CODEC);
+    assertTrue(reader.isEmpty());
+    assertNull(reader.peekHead());
+
+    writer.add("b");
+    writer.add("d");
+    writer.addFirst("a");
+    writer.insertAfter("b", "c");
+    writer.insertAfter("d", "e");
+    assertEquals(List.of("a", "b", "c", "d", "e"), reader.elements());
+    assertEquals(5, reader.size());
+    assertEquals("a", reader.peekHead());
+    assertEquals("e", reader.peekTail());
+    assertEquals("d", reader.next("c"));
+    assertNull(reader.next("e"));
+    assertThrows(NoSuchElementException.class, () -> reader.next("z"));
+    assertTrue(reader.contains("c"));
+    assertFalse(reader.contains("z"));
+    assertThrows(IllegalArgumentException.class, () -> writer.add("c"));
+    assertThrows(IllegalArgumentException.class, () -> writer.insertAfter("z", "f"));
+
+    // the same encoded size is replaced in place, a different size is relinked
+    writer.replace("c", "x");
+    writer.replace("a", "longer");
+    assertEquals(List.of("longer", "b", "x", "d", "e"), reader.elements());
+    assertEquals("longer", reader.get("longer"));
+    assertFalse(reader.contains("a"));
+    assertThrows(IllegalArgumentException.class, () -> writer.replace("a", "y"));
+    assertThrows(IllegalArgumentException.class, () -> writer.replace("b", "d"));
+
+    assertTrue(writer.moveToHead("d"));
+    assertFalse(writer.moveToHead("z"));
+    assertTrue(writer.remove("x"));
+    assertFalse(writer.remove("x"));
+    assertEquals("e", writer.pollTail());
+    assertEquals(List.of("d", "longer", "b"), reader.elements());
+    assertEquals(List.of("d", "longer", "b"), writer.elements());
+    assertEquals("b", reader.peekTail());
+
+    long version = reader.version();
+    writer.clear();
+    assertNotEquals(version, reader.version());
+    assertTrue(reader.isEmpty());
+    assertNull(writer.pollTail());
+    writer.add("a");
+    assertEquals(List.of("a"), reader.elements());
+  }
+
+  @Test
+  void compaction(@TempDir Path directory) {
+    Path file = directory.resolve("schedule.list");
+    // room for 8 records of 16 byte headers and 8 byte elements
+    SharedListWriter<String> writer = new SharedListWriter<>(file, STRING_CODEC, 4, 8 * 24);
+    SharedListReader<String> reader = new SharedListReader<>(file, STRING_CODEC);
+    for (int i = 0; i < 100; i++) {
+      writer.add(String.format("%04d", i));
+      if (writer.size() > 3) {
+        writer.remove(String.format("%04d", i - 3));
+      }
+    }
+    assertEquals(List.of("0097", "0098", "0099"), reader.elements());
+    assertTrue(reader.contains("0098"));
+    assertTrue(writer.compact() > 0);
+    assertEquals(0, writer.compact());
+
+    writer.add("0100");
+    assertThrows(IllegalStateException.class, () -> writer.add("0101"));
+    assertThrows(IllegalStateException.class, () -> writer.replace("0100", "x".repeat(100)));
+    assertEquals(List.of("0097", "0098", "0099", "0100"), reader.elements());
+    writer.remove("0097");
+    writer.replace("0100", "010");
+    assertEquals(48, writer.compact());
+    assertEquals(List.of("0098", "0099", "010"), reader.elements());
+  }
+
+  @Test
+  void readersNeverSeeAPartialChange(@TempDir Path directory) throws InterruptedException {
+    Path file = directory.resolve("schedule.list");
+    SharedListWriter<String> writer = new SharedListWriter<>(file, STRING_CODEC, 64, 4096);
+    SharedListReader<String> reader = new SharedListReader<>(file, STRING_CODEC);
+    int window = 32;
+    for (int i = 0; i < window; i++) {
+      writer.add(Integer.toString(i));
+    }
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread writing = new Thread(() -> {
+      try {
+        // keeps a window of consecutive numbers, compacting many times over
+        for (int i = window; i < 100_000; i++) {
+          writer.add(Integer.toString(i));
+          writer.remove(Integer.toString(i - window));
+        }
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+    writing.start();
+    int reads = 0;
+    while (writing.isAlive() || reads == 0) {
+      List<String> elements = reader.elements();
+      int first = Integer.parseInt(elements.get(0));
+      assertTrue(elements.size() == window || elements.size() == window + 1, elements::toString);
+      for (int i = 0; i < elements.size(); i++) {
+        assertEquals(Integer.toString(first + i), elements.get(i));
+      }
+      reads ++;
+    }
+    writing.join();
+    assertNull(failure.get());
+    assertEquals(Integer.toString(100_000 - window), reader.peekHead());
+  }
+
+  @Test
+  void notASharedList(@TempDir Path directory) throws IOException {
+    Path file = Files.write(directory.resolve("other"), new byte[128]);
+    assertThrows(IllegalStateException.class, () -> new SharedListReader<>(file, STRING_CODEC));
+    assertThrows(UncheckedIOException.class, () -> new SharedListWriter<>(file, STRING_CODEC, 4, 64));
+  }
+
+  @Test
+  void anotherProcessWrites(@TempDir Path directory) throws Exception {
+    Path file = directory.resolve("schedule.list");
+    Process writing = writerProcess(file, 20_000, false);
+    SharedListReader<String> reader = open(file, writing);
+    while (writing.isAlive()) {
+      List<String> elements = reader.elements();
+      for (int i = 0; i < elements.size(); i++) {
+        assertEquals(Integer.toString(i), elements.get(i));
+      }
+    }
+    assertEquals(0, writing.waitFor());
+    assertEquals(expected(20_000), reader.elements());
+  }
+
+  @Test
+  void restartAfterTheWriterDies(@TempDir Path directory) throws Exception {
+    Path file = directory.resolve("schedule.list");
+    Process writing = writerProcess(file, 100, true);
+    assertEquals(1, writing.waitFor());
+    SharedListReader<String> reader = new SharedListReader<>(file, STRING_CODEC, Duration.ofMillis(100));
+    assertThrows(IllegalStateException.class, reader::size);
+
+    SharedListWriter<String> writer = SharedListWriter.reopen(file, STRING_CODEC);
+    assertEquals(expected(100), reader.elements());
+    writer.add("100");
+    assertEquals(101, reader.size());
+    assertEquals("100", reader.peekTail());
+  }
+
+  @Test
+  void stallTimeoutMustBePositive(@TempDir Path directory) {
+    Path file = directory.resolve("schedule.list");
+    new SharedListWriter<>(file, STRING_CODEC, 4, 64);
+    assertThrows(IllegalArgumentException.class, () -> new SharedListReader<>(file, STRING_CODEC, Duration.ZERO));
+  }
+
+  private static Process writerProcess(Path file, int count, boolean die) throws IOException {
+    Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+    return new ProcessBuilder(java.toString(), "-cp", System.getProperty("java.class.path"), WriterProcess.class.getName(),
+        file.toString(), Integer.toString(count), Boolean.toString(die)).inheritIO().start();
+  }
+
+  // the writer creates the file and publishes it once its header is written
+  private static SharedListReader<String> open(Path file, Process writing) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+    while (true) {
+      try {
+        return new SharedListReader<>(file, STRING_CODEC);
+      } catch (RuntimeException e) {
+        if (System.nanoTime() > deadline || !writing.isAlive() && writing.exitValue() != 0) {
+          throw e;
+        }
+        Thread.sleep(1);
+      }
+    }
+  }
+
+  private static List<String> expected(int count) {
+    List<String> elements = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      elements.add(Integer.toString(i));
+    }
+    return elements;
+  }
+
+  /**
+   * Adds count elements to a new file, then if told to die starts a change and halts without finishing it.
+   */
+  static final class WriterProcess {
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+      SharedListWriter<String> writer = new SharedListWriter<>(Path.of(args[0]), STRING_CODEC, 32_768, 1 << 20);
+      int count = Integer.parseInt(args[1]);
+      for (int i = 0; i < count; i++) {
+        writer.add(Integer.toString(i));
+      }
+      if (Boolean.parseBoolean(args[2])) {
+        Method beginWrite = SharedListWriter.class.getDeclaredMethod("beginWrite");
+        beginWrite.setAccessible(true);
+        beginWrite.invoke(writer);
+        Runtime.getRuntime().halt(1);
+      }
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package client.simulator;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Records the collections of every garbage collector while the workload is measured.
+ * <br/>
+ * The duration of each collection is taken from the collector's MXBean notifications and recorded in a histogram per collector.
+ * On HotSpot the notifications of the young and full collectors are stop the world pauses, concurrent collectors such as
+ * {@code G1 Concurrent GC} report the length of their cycle instead. The collection counts and times of the MXBeans are kept as
+ * well, as a cross check for a JVM that does not send notifications.
+ */
+final class GcMonitor implements NotificationListener, AutoCloseable {
+
+  private static final long NANOS_PER_MILLI = 1_000_000;
+
+  private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+  private final Map<String, LatencyHistogram> durations = new LinkedHashMap<>();
+  private final long[] startCounts = new long[collectors.size()];
+  private final long[] startTimes = new long[collectors.size()];
+  private final List<NotificationEmitter> emitters = new ArrayList<>();
+
+  GcMonitor() {
+    for (GarbageCollectorMXBean collector : collectors) {
+      durations.put(collector.getName(), new LatencyHistogram());
+      if (collector instanceof NotificationEmitter emitter) {
+        emitter.addNotificationListener(this, null, null);
+        emitters.add(emitter);
+      }
+    }
+    reset();
+  }
+
+  /**
+   * Forgets every collection seen so far, called when the warm up ends.
+   */
+  synchronized void reset() {
+    durations.values().forEach(LatencyHistogram::reset);
+    for (int i = 0; i < collectors.size(); i++) {
+      startCounts[i] = collectors.get(i).getCollectionCount();
+      startTimes[i] = collectors.get(i).getCollectionTime();
+    }
+  }
+
+  @Override
+  public synchronized void handleNotification(Notification notification, Object handback) {
+    if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+      GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+      durations.computeIfAbsent(info.getGcName(), name -> new LatencyHistogram())
+          .record(info.getGcInfo().getDuration() * NANOS_PER_MILLI);
+    }
+  }
+
+  /**
+   * Prints a line per collector: the collections and milliseconds reported by the MXBean since the last reset, followed by the
+   * percentiles of the notified durations.
+   */
+  synchronized void report(StringBuilder out) {
+    out.append(String.format("%-24s %8s %10s %8s %8s %8s%n", "collector", "count", "time ms", "p50 ms", "p99 ms", "max ms"));
+    for (int i = 0; i < collectors.size(); i++) {
+      GarbageCollectorMXBean collector = collectors.get(i);
+      LatencyHistogram histogram = durations.get(collector.getName());
+      out.append(String.format("%-24s %8d %10d %8d %8d %8d%n", collector.getName(),
+          collector.getCollectionCount() - startCounts[i], collector.getCollectionTime() - startTimes[i],
+          histogram.percentile(50) / NANOS_PER_MILLI, histogram.percentile(99) / NANOS_PER_MILLI,
+          histogram.max() / NANOS_PER_MILLI));
+    }
+  }
+
+  @Override
+  public void close() {
+    for (NotificationEmitter emitter : emitters) {
+      try {
+        emitter.removeNotificationListener(this);
+      } catch (ListenerNotFoundException e) {
+        // already removed
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package client.simulator;
+
+import java.util.Arrays;
+
+/**
+ * A log linear histogram of latencies in nanoseconds with a relative error below one percent.
+ * <br/>
+ * Values below 256 have a bucket each, above that every power of two is split in to 128 equal buckets, so recording is a shift and
+ * an array increment with no allocation. Histograms are not thread safe, each worker records in to its own and they are merged
+ * for the report.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 8;
+  private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+
+  private final long[] counts = new long[bucket(Long.MAX_VALUE) + 1];
+  private long count;
+  private long sum;
+  private long max;
+
+  void record(long nanos) {
+    if (nanos < 0) {
+      throw new IllegalArgumentException("nanos MUST not be negative");
+    }
+    counts[bucket(nanos)] ++;
+    count ++;
+    sum += nanos;
+    max = Math.max(max, nanos);
+  }
+
+  void merge(LatencyHistogram other) {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += other.counts[i];
+    }
+    count += other.count;
+    sum += other.sum;
+    max = Math.max(max, other.max);
+  }
+
+  void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    sum = 0;
+    max = 0;
+  }
+
+  long count() {
+    return count;
+  }
+
+  long max() {
+    return max;
+  }
+
+  double mean() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+  /**
+   * @param percentile the percentile, for example 99.9.
+   * @return the highest value equivalent to the value at the percentile, 0 if nothing was recorded.
+   */
+  long percentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile MUST be between 0 and 100");
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(highestEquivalent(i), max);
+      }
+    }
+    return 0;
+  }
+
+  private static int bucket(long value) {
+    int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+    return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+  }
+
+  private static long highestEquivalent(int bucket) {
+    int shift = Math.max(0, bucket / HALF_SUB_BUCKETS - 1);
+    long next = (long) (bucket - shift * HALF_SUB_BUCKETS + 1) << shift;
+    return next - 1;
+  }
+}
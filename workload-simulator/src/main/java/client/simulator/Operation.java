@@ -0,0 +1,39 @@
+package client.simulator;
+
+/**
+ * The operations of the channel schedule workload, see {@link WorkloadSimulator}.
+ */
+enum Operation {
+  /** Bulk loads the next day of the schedule and merges it in with one lock hold for the whole day. */
+  LOAD,
+  /** Removes the oldest day of the schedule once the retention is exceeded. */
+  EVICT,
+  /** Links a new item directly after an existing one, a live edit. */
+  INSERT_AFTER,
+  /** Swaps an item for a new one with the same start, a live edit. */
+  REPLACE,
+  /** Moves an item to a new start anywhere in the schedule. */
+  RESCHEDULE,
+  /** Reads the items starting in a window of the schedule. */
+  RANGE_READ;
+
+  /**
+   * @return the name used on the command line and in the report.
+   */
+  String label() {
+    StringBuilder label = new StringBuilder();
+    for (String word : name().toLowerCase().split("_")) {
+      label.append(label.length() == 0 ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+    }
+    return label.toString();
+  }
+
+  static Operation of(String label) {
+    for (Operation operation : values()) {
+      if (operation.label().equals(label)) {
+        return operation;
+      }
+    }
+    throw new IllegalArgumentException("Unknown operation [" + label + "]");
+  }
+}
@@ -0,0 +1,88 @@
+package client.simulator;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The settings of a simulation, parsed from {@code --name=value} arguments, see {@link #parse(String...)}.
+ *
+ * @param threads the number of threads making live edits and range reads.
+ * @param seconds how long the workload is measured for.
+ * @param warmupSeconds how long the workload runs before it is measured.
+ * @param days the number of days of schedule retained, older days are evicted.
+ * @param itemsPerDay the number of items loaded for each day.
+ * @param rollMillis how often the next day is loaded and the oldest evicted.
+ * @param rangeHours the length of the window of a range read.
+ * @param mix the relative weight of each live operation, see {@link Operation}.
+ */
+record Workload(int threads, int seconds, int warmupSeconds, int days, int itemsPerDay, int rollMillis, int rangeHours,
+    Map<Operation, Integer> mix) {
+
+  static final String USAGE = "--threads=4 --seconds=30 --warmupSeconds=10 --days=7 --itemsPerDay=2880 --rollMillis=1000 "
+      + "--rangeHours=6 --mix=insertAfter:30,replace:20,reschedule:10,rangeRead:40";
+
+  Workload {
+    if (threads < 1 || seconds < 1 || warmupSeconds < 0 || days < 1 || itemsPerDay < 1 || rollMillis < 1 || rangeHours < 1) {
+      throw new IllegalArgumentException("Invalid workload, usage: " + USAGE);
+    }
+    if (mix.containsKey(Operation.LOAD) || mix.containsKey(Operation.EVICT)) {
+      throw new IllegalArgumentException("load and evict are driven by rollMillis, not the mix");
+    }
+    if (mix.values().stream().anyMatch(weight -> weight < 0) || mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+      throw new IllegalArgumentException("The mix weights MUST not be negative and at least one MUST be positive");
+    }
+    mix = Collections.unmodifiableMap(new EnumMap<>(mix));
+  }
+
+  /**
+   * @param args arguments of the form {@code --name=value}, any not given take the defaults shown in {@link #USAGE}.
+   */
+  static Workload parse(String... args) {
+    Map<String, String> values = new HashMap<>();
+    for (String arg : (USAGE + " " + String.join(" ", args)).trim().split("\\s+")) {
+      int equals = arg.indexOf('=');
+      if (!arg.startsWith("--") || equals < 0) {
+        throw new IllegalArgumentException("Invalid argument [" + arg + "], usage: " + USAGE);
+      }
+      values.put(arg.substring(2, equals), arg.substring(equals + 1));
+    }
+    Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    for (String weight : values.remove("mix").split(",")) {
+      String[] pair = weight.split(":");
+      if (pair.length != 2) {
+        throw new IllegalArgumentException("Invalid mix weight [" + weight + "], usage: " + USAGE);
+      }
+      mix.put(Operation.of(pair[0]), Integer.parseInt(pair[1]));
+    }
+    Workload workload = new Workload(integer(values, "threads"), integer(values, "seconds"), integer(values, "warmupSeconds"),
+        integer(values, "days"), integer(values, "itemsPerDay"), integer(values, "rollMillis"), integer(values, "rangeHours"), mix);
+    if (!values.isEmpty()) {
+      throw new IllegalArgumentException("Unknown arguments " + values.keySet() + ", usage: " + USAGE);
+    }
+    return workload;
+  }
+
+  /**
+   * @return a live operation picked at random in proportion to the mix weights.
+   */
+  Operation pick(int random) {
+    int total = 0;
+    for (int weight : mix.values()) {
+      total += weight;
+    }
+    int remaining = Math.floorMod(random, total);
+    for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+      remaining -= weight.getValue();
+      if (remaining < 0) {
+        return weight.getKey();
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  private static int integer(Map<String, String> values, String name) {
+    return Integer.parseInt(values.remove(name));
+  }
+}
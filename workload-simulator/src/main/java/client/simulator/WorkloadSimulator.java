@@ -0,0 +1,272 @@
+package client.simulator;
+
+import client.Item;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import linkedlist.partitioned.FixedWidthPartitionIndexFactory;
+import linkedlist.partitioned.PartitionedLinkedList;
+
+/**
+ * Drives a {@link PartitionedLinkedList} of {@link Item}s with the traffic of a rolling multi-day channel schedule and reports the
+ * throughput, the latency percentiles of each operation and the garbage collections seen while measuring.
+ * <br/>
+ * The schedule is partitioned by day. A roll thread loads the next day every {@code rollMillis} and evicts the oldest day once more
+ * than {@code days} are held, while worker threads make live edits and range reads anywhere in the retained days in the
+ * proportions of the mix. The list is not thread safe so every operation holds one lock, latencies include the wait for it as a
+ * caller sharing a schedule would see. Run with {@code gradle :workload-simulator:run --args="--threads=8 --seconds=60"}, see
+ * {@link Workload#USAGE} for every setting.
+ */
+public final class WorkloadSimulator {
+
+  private static final LocalDateTime ORIGIN = LocalDateTime.of(2022, 1, 1, 0, 0);
+  private static final long NANOS_PER_DAY = TimeUnit.DAYS.toNanos(1);
+  private static final FixedWidthPartitionIndexFactory<LocalDateTime> DAILY =
+      FixedWidthPartitionIndexFactory.of(ORIGIN, Duration.ofDays(1));
+
+  private final Workload workload;
+  private final PartitionedLinkedList<LocalDateTime, Item> schedule;
+  private final ReentrantLock lock = new ReentrantLock();
+  // the first retained day and the day after the last loaded day, guarded by lock
+  private LocalDate firstDay = ORIGIN.toLocalDate();
+  private LocalDate nextDay;
+  private volatile boolean measuring;
+  private volatile boolean running = true;
+  // consumes the results of range reads so they are not optimised away
+  private long consumed;
+
+  WorkloadSimulator(Workload workload) {
+    this.workload = workload;
+    List<Item> items = new ArrayList<>();
+    nextDay = firstDay;
+    while (nextDay.isBefore(firstDay.plusDays(workload.days()))) {
+      items.addAll(day(nextDay));
+      nextDay = nextDay.plusDays(1);
+    }
+    this.schedule = PartitionedLinkedList.bulkLoad(DAILY, items);
+    // evicted days are not refilled, keep one empty partition for the day being evicted
+    schedule.reclaimEmptyPartitions(1);
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    Workload workload;
+    try {
+      workload = Workload.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.exit(2);
+      return;
+    }
+    System.out.print(new WorkloadSimulator(workload).run());
+  }
+
+  /**
+   * Runs the warm up then the measured workload.
+   *
+   * @return the report.
+   */
+  String run() throws InterruptedException {
+    List<Map<Operation, LatencyHistogram>> recorders = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    Map<Operation, LatencyHistogram> rolls = histograms();
+    recorders.add(rolls);
+    threads.add(new Thread(() -> roll(rolls), "roll"));
+    for (int i = 0; i < workload.threads(); i++) {
+      Map<Operation, LatencyHistogram> edits = histograms();
+      recorders.add(edits);
+      threads.add(new Thread(() -> edit(edits), "worker-" + i));
+    }
+    try (GcMonitor gc = new GcMonitor()) {
+      threads.forEach(Thread::start);
+      Thread.sleep(TimeUnit.SECONDS.toMillis(workload.warmupSeconds()));
+      gc.reset();
+      long start = System.nanoTime();
+      measuring = true;
+      Thread.sleep(TimeUnit.SECONDS.toMillis(workload.seconds()));
+      measuring = false;
+      long measured = System.nanoTime() - start;
+      running = false;
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      return report(recorders, measured, gc);
+    }
+  }
+
+  private void edit(Map<Operation, LatencyHistogram> histograms) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (running) {
+      Operation operation = workload.pick(random.nextInt());
+      long start = System.nanoTime();
+      lock.lock();
+      try {
+        perform(operation, random);
+      } finally {
+        lock.unlock();
+      }
+      record(histograms, operation, start);
+    }
+  }
+
+  private void perform(Operation operation, ThreadLocalRandom random) {
+    LocalDateTime at = randomStart(random);
+    Item was = schedule.floor(at);
+    switch (operation) {
+      case INSERT_AFTER -> {
+        if (was != null) {
+          insertAfter(was);
+        }
+      }
+      case REPLACE -> {
+        if (was != null) {
+          schedule.moveTo(was, new Item(was.getStartDateTime()));
+        }
+      }
+      case RESCHEDULE -> {
+        if (was != null) {
+          schedule.moveTo(was, new Item(randomStart(random)));
+        }
+      }
+      case RANGE_READ -> consumed += schedule.range(at, at.plusHours(workload.rangeHours())).size();
+      default -> throw new IllegalStateException("Not a live operation " + operation);
+    }
+  }
+
+  /**
+   * Links a new item a second after the given one, through the partition's list so no search is made for its position.
+   */
+  private void insertAfter(Item anchor) {
+    Item item = new Item(anchor.getStartDateTime().plusSeconds(1));
+    if (!item.getStartDateTime().toLocalDate().equals(anchor.getStartDateTime().toLocalDate())) {
+      // crosses midnight in to the next day's partition
+      schedule.add(item);
+      return;
+    }
+    ListIterator<Item> iterator = schedule.linkedList(anchor).listIterator(anchor);
+    iterator.next();
+    iterator.add(item);
+  }
+
+  private LocalDateTime randomStart(ThreadLocalRandom random) {
+    return firstDay.atStartOfDay().plusNanos(random.nextLong(ChronoUnit.DAYS.between(firstDay, nextDay) * NANOS_PER_DAY));
+  }
+
+  private void roll(Map<Operation, LatencyHistogram> histograms) {
+    long next = System.nanoTime();
+    while (running) {
+      next += TimeUnit.MILLISECONDS.toNanos(workload.rollMillis());
+      long wait = next - System.nanoTime();
+      if (wait > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+      lock.lock();
+      LocalDate loading = nextDay;
+      lock.unlock();
+      List<Item> day = day(loading);
+
+      // the day is linked in to its own list outside the lock, its partition is then spliced in to the schedule whole
+      long start = System.nanoTime();
+      PartitionedLinkedList<LocalDateTime, Item> loaded = PartitionedLinkedList.bulkLoad(DAILY, day);
+      lock.lock();
+      try {
+        schedule.mergeFrom(loaded);
+        nextDay = loading.plusDays(1);
+      } finally {
+        lock.unlock();
+      }
+      record(histograms, Operation.LOAD, start);
+
+      start = System.nanoTime();
+      lock.lock();
+      try {
+        if (ChronoUnit.DAYS.between(firstDay, nextDay) <= workload.days()) {
+          continue;
+        }
+        LocalDateTime evicted = firstDay.atStartOfDay();
+        try {
+          schedule.linkedList(() -> evicted).clear();
+        } catch (NoSuchElementException e) {
+          // every item of the day was rescheduled away
+        }
+        firstDay = firstDay.plusDays(1);
+      } finally {
+        lock.unlock();
+      }
+      record(histograms, Operation.EVICT, start);
+    }
+  }
+
+  private void record(Map<Operation, LatencyHistogram> histograms, Operation operation, long start) {
+    long elapsed = System.nanoTime() - start;
+    if (measuring) {
+      histograms.get(operation).record(elapsed);
+    }
+  }
+
+  private List<Item> day(LocalDate date) {
+    List<Item> items = new ArrayList<>(workload.itemsPerDay());
+    LocalDateTime start = date.atStartOfDay();
+    for (int i = 0; i < workload.itemsPerDay(); i++) {
+      items.add(new Item(start.plusNanos(i * (NANOS_PER_DAY / workload.itemsPerDay()))));
+    }
+    return items;
+  }
+
+  private String report(List<Map<Operation, LatencyHistogram>> recorders, long measured, GcMonitor gc) {
+    Map<Operation, LatencyHistogram> merged = histograms();
+    LatencyHistogram total = new LatencyHistogram();
+    for (Map<Operation, LatencyHistogram> recorder : recorders) {
+      recorder.forEach((operation, histogram) -> {
+        merged.get(operation).merge(histogram);
+        total.merge(histogram);
+      });
+    }
+    double seconds = measured / 1e9;
+    StringBuilder out = new StringBuilder();
+    out.append(workload).append(System.lineSeparator());
+    out.append(String.format("%-12s %10s %10s %9s %9s %9s %9s %9s%n",
+        "operation", "count", "ops/s", "mean us", "p50 us", "p99 us", "p999 us", "max us"));
+    merged.forEach((operation, histogram) -> line(out, operation.label(), histogram, seconds));
+    line(out, "total", total, seconds);
+    out.append(System.lineSeparator());
+    gc.report(out);
+    out.append(System.lineSeparator());
+    lock.lock();
+    try {
+      out.append(String.format("schedule of %d items, %d partitions reclaimed, %d items read%n",
+          schedule.size(), schedule.reclaimedPartitionCount(), consumed));
+    } finally {
+      lock.unlock();
+    }
+    return out.toString();
+  }
+
+  private static void line(StringBuilder out, String label, LatencyHistogram histogram, double seconds) {
+    out.append(String.format("%-12s %10d %10.0f %9.1f %9.1f %9.1f %9.1f %9.1f%n", label, histogram.count(),
+        histogram.count() / seconds, histogram.mean() / 1e3, histogram.percentile(50) / 1e3, histogram.percentile(99) / 1e3,
+        histogram.percentile(99.9) / 1e3, histogram.max() / 1e3));
+  }
+
+  private static Map<Operation, LatencyHistogram> histograms() {
+    Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      histograms.put(operation, new LatencyHistogram());
+    }
+    return histograms;
+  }
+}
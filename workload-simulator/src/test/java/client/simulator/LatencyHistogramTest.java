@@ -0,0 +1,59 @@
+package client.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void percentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.percentile(99));
+    for (long i = 1; i <= 100_000; i++) {
+      histogram.record(i * 1_000);
+    }
+    assertEquals(100_000, histogram.count());
+    assertEquals(100_000_000, histogram.max());
+    assertWithin(50_000_000, histogram.percentile(50));
+    assertWithin(99_000_000, histogram.percentile(99));
+    assertWithin(99_900_000, histogram.percentile(99.9));
+    assertEquals(100_000_000, histogram.percentile(100));
+    assertEquals(50_000_500, histogram.mean(), 0.1);
+  }
+
+  @Test
+  void smallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long i = 0; i < 256; i++) {
+      histogram.record(i);
+    }
+    assertEquals(127, histogram.percentile(50));
+    assertEquals(255, histogram.percentile(100));
+    assertThrows(IllegalArgumentException.class, () -> histogram.record(-1));
+  }
+
+  @Test
+  void merge() {
+    LatencyHistogram fast = new LatencyHistogram();
+    LatencyHistogram slow = new LatencyHistogram();
+    for (int i = 0; i < 990; i++) {
+      fast.record(1_000);
+    }
+    for (int i = 0; i < 10; i++) {
+      slow.record(Long.MAX_VALUE);
+    }
+    fast.merge(slow);
+    assertEquals(1_000, fast.count());
+    assertWithin(1_000, fast.percentile(99));
+    assertEquals(Long.MAX_VALUE, fast.percentile(99.9));
+    fast.reset();
+    assertEquals(0, fast.count());
+    assertEquals(0, fast.percentile(50));
+  }
+
+  private static void assertWithin(long expected, long actual) {
+    assertTrue(Math.abs(actual - expected) < expected / 100, () -> "expected about " + expected + " but was " + actual);
+  }
+}
@@ -0,0 +1,46 @@
+package client.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.EnumMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class WorkloadSimulatorTest {
+
+  @Test
+  void parse() {
+    Workload defaults = Workload.parse();
+    assertEquals(4, defaults.threads());
+    assertEquals(2880, defaults.itemsPerDay());
+    assertEquals(40, defaults.mix().get(Operation.RANGE_READ));
+
+    Workload workload = Workload.parse("--threads=2", "--mix=insertAfter:1,rangeRead:3");
+    assertEquals(2, workload.threads());
+    assertEquals(Map.of(Operation.INSERT_AFTER, 1, Operation.RANGE_READ, 3), workload.mix());
+    Map<Operation, Integer> picked = new EnumMap<>(Operation.class);
+    for (int i = 0; i < 4; i++) {
+      picked.merge(workload.pick(i), 1, Integer::sum);
+    }
+    assertEquals(Map.of(Operation.INSERT_AFTER, 1, Operation.RANGE_READ, 3), picked);
+
+    assertThrows(IllegalArgumentException.class, () -> Workload.parse("--threads=0"));
+    assertThrows(IllegalArgumentException.class, () -> Workload.parse("--mix=load:1"));
+    assertThrows(IllegalArgumentException.class, () -> Workload.parse("--mix=unknown:1"));
+    assertThrows(IllegalArgumentException.class, () -> Workload.parse("--colour=blue"));
+    assertThrows(IllegalArgumentException.class, () -> Workload.parse("threads"));
+  }
+
+  @Test
+  void run() throws InterruptedException {
+    Workload workload = Workload.parse("--threads=2", "--seconds=1", "--warmupSeconds=0", "--days=2", "--itemsPerDay=96",
+        "--rollMillis=50");
+    String report = new WorkloadSimulator(workload).run();
+    for (Operation operation : Operation.values()) {
+      assertTrue(report.contains(operation.label()), report);
+    }
+    assertTrue(report.contains("collector"), report);
+    assertTrue(report.contains("partitions reclaimed"), report);
+  }
+}